@@ -0,0 +1,138 @@
+package benchmark;
+
+import database.DatabaseConnection;
+import entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.TransactionRepository;
+import service.FinanceService;
+import service.TransactionJournal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per inserted row of {@link #ROWS} new transactions:
+ * <ul>
+ *   <li>{@code autocommit}: {@link FinanceService#addTransaction} once per row</li>
+ *   <li>{@code batch-N}: {@link TransactionRepository#saveAll} with JDBC batches of N</li>
+ *   <li>{@code journal}: {@link TransactionJournal#append} per row, then one flush</li>
+ * </ul>
+ * Rows inserted during an iteration are deleted after it, so every iteration
+ * starts from the same ledger.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+    public static final int ROWS = 2_000;
+
+    @Param({"autocommit", "batch-100", "batch-500", "batch-2000", "journal"})
+    public String mode;
+
+    private final FinanceService financeService = new FinanceService();
+    private final TransactionRepository repository = new TransactionRepository();
+    private final PrintStream console = System.out;
+    private TransactionJournal journal;
+    private Path journalFile;
+    private List<Transaction> rows;
+    private long lastIdBefore;
+    private long seed = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        // addTransaction reports every row on stdout
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        if (mode.equals("journal")) {
+            journalFile = Files.createTempFile("cashier-bench", ".journal");
+            Files.delete(journalFile);
+            journal = TransactionJournal.open(journalFile, TransactionJournal.DEFAULT_CAPACITY);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            Files.deleteIfExists(journalFile);
+        }
+        System.setOut(console);
+    }
+
+    @Setup(Level.Iteration)
+    public void rememberLastId() throws SQLException {
+        lastIdBefore = maxId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM transactions WHERE id > ?")) {
+            pstmt.setLong(1, lastIdBefore);
+            pstmt.executeUpdate();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void generateRows(LedgerState state) {
+        rows = state.ledger.newTransactions(ROWS, seed++);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert(LedgerState state) {
+        int userId = state.ledger.currentUserId();
+        switch (mode) {
+            case "autocommit" -> {
+                for (Transaction t : rows) {
+                    financeService.addTransaction(t.getType(), t.getAmount(), t.getDate(), t.getDescription(), null);
+                }
+            }
+            case "journal" -> {
+                for (Transaction t : rows) {
+                    journal.append(userId, t);
+                }
+                journal.flush();
+            }
+            default -> {
+                int batchSize = Integer.parseInt(mode.substring("batch-".length()));
+                if (repository.saveAll(userId, rows, batchSize).size() != ROWS) {
+                    throw new IllegalStateException("Batch insert failed");
+                }
+            }
+        }
+    }
+
+    private static long maxId() throws SQLException {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM transactions");
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
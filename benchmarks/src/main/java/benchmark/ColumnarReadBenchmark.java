@@ -0,0 +1,96 @@
+package benchmark;
+
+import entity.TransactionView;
+import export.ColumnarReader;
+import export.ExportFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.ExportService;
+import service.FinanceService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads back a columnar export of the current user, with and without gzip.
+ * Setup checks the round trip first: every row read must equal the row the
+ * exporter was given, in the same order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarReadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private Path directory;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void export(LedgerState state) throws IOException, ExecutionException, InterruptedException {
+        directory = Files.createTempDirectory("cashier-columnar-bench");
+        file = directory.resolve("export." + ExportFormat.COLUMNAR.extension() + (gzip ? ExportFormat.GZIP_SUFFIX : ""));
+        new ExportService().startTransactionsExport(file, ExportFormat.COLUMNAR).await();
+
+        long rows = 0;
+        try (Stream<TransactionView> expected = new FinanceService().streamTransactions();
+             ColumnarReader reader = ColumnarReader.open(file)) {
+            Iterator<TransactionView> rowsExported = expected.iterator();
+            TransactionView actual;
+            while ((actual = reader.next()) != null) {
+                if (!rowsExported.hasNext()) {
+                    throw new IllegalStateException("Read more rows than were exported");
+                }
+                TransactionView exported = rowsExported.next();
+                if (!exported.equals(actual)) {
+                    throw new IllegalStateException("Row " + rows + " read back as " + actual + ", exported " + exported);
+                }
+                rows++;
+            }
+            if (rowsExported.hasNext()) {
+                throw new IllegalStateException("Read " + rows + " rows, fewer than were exported");
+            }
+        }
+        if (rows != state.ledger.transactionsPerUser()) {
+            throw new IllegalStateException("Exported " + rows + " rows");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteExport() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long readAll() throws IOException {
+        long amounts = 0;
+        try (ColumnarReader reader = ColumnarReader.open(file)) {
+            TransactionView row;
+            while ((row = reader.next()) != null) {
+                amounts += row.amount();
+            }
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import export.ExportFormat;
+import export.ExportJob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.ExportService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/** Full-history export of the current user, per format, with and without gzip. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    @Param({"TEXT", "CSV", "JSON_LINES", "COLUMNAR"})
+    public ExportFormat format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private final ExportService exportService = new ExportService();
+    private Path directory;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("cashier-export-bench");
+        file = directory.resolve("export." + format.extension() + (gzip ? ExportFormat.GZIP_SUFFIX : ""));
+    }
+
+    // ext4 flushes a file renamed over an existing one (auto_da_alloc), which would
+    // dominate small exports; start every invocation without a previous export
+    @TearDown(Level.Invocation)
+    public void deleteExport() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public ExportJob.Result exportTransactions(LedgerState state) throws ExecutionException, InterruptedException {
+        ExportJob.Result result = exportService.startTransactionsExport(file, format).await();
+        if (result.rows() != state.ledger.transactionsPerUser()) {
+            throw new IllegalStateException("Exported " + result.rows() + " rows");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Ledger size shared by all benchmarks; override with {@code -p users=... -p transactionsPerUser=...}. */
+@State(Scope.Benchmark)
+public class LedgerState {
+
+    @Param("4")
+    public int users;
+
+    @Param("50000")
+    public int transactionsPerUser;
+
+    public SyntheticLedger ledger;
+
+    @Setup(Level.Trial)
+    public void open() {
+        ledger = SyntheticLedger.open(users, transactionsPerUser);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        SyntheticLedger.close();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import entity.DateRange;
+import entity.PeriodTotals;
+import entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.TransactionRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/** Repository queries straight against SQLite, without the ledger cache. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+    private final TransactionRepository repository = new TransactionRepository();
+
+    @Benchmark
+    public List<Transaction> findByDateRange30Days(LedgerState state) {
+        LocalDate end = state.ledger.lastDate();
+        return repository.findByDateRange(state.ledger.currentUserId(), end.minusDays(29), end);
+    }
+
+    @Benchmark
+    public long streamByDateRange30Days(LedgerState state) {
+        LocalDate end = state.ledger.lastDate();
+        try (Stream<Transaction> rows = repository.streamByDateRange(state.ledger.currentUserId(), end.minusDays(29), end)) {
+            return rows.count();
+        }
+    }
+
+    @Benchmark
+    public List<PeriodTotals> totalsByPeriods12Months(LedgerState state) {
+        YearMonth month = YearMonth.from(state.ledger.lastDate());
+        List<DateRange> periods = new ArrayList<>(12);
+        for (int i = 0; i < 12; i++) {
+            YearMonth m = month.minusMonths(i);
+            periods.add(DateRange.ofMonth(m.getYear(), m.getMonthValue()));
+        }
+        return repository.totalsByPeriods(state.ledger.currentUserId(), periods);
+    }
+}
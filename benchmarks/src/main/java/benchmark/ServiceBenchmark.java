@@ -0,0 +1,64 @@
+package benchmark;
+
+import entity.TransactionView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.AnalyticsService;
+import service.FinanceService;
+import service.LedgerCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing and report calls as the UI makes them. With {@code cached=false}
+ * the user's ledger cache is invalidated before every call, which measures
+ * the database path; {@code cached=true} measures repeat calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private final FinanceService financeService = new FinanceService();
+    private final AnalyticsService analyticsService = new AnalyticsService();
+
+    @Benchmark
+    public List<TransactionView> getTransactions(LedgerState state) {
+        invalidate(state);
+        return financeService.getTransactions();
+    }
+
+    @Benchmark
+    public Map<String, Double> getMonthlySummary(LedgerState state) {
+        invalidate(state);
+        return analyticsService.getMonthlySummary();
+    }
+
+    @Benchmark
+    public Map<String, Double> getFinancialHealth(LedgerState state) {
+        invalidate(state);
+        return analyticsService.getFinancialHealth();
+    }
+
+    private void invalidate(LedgerState state) {
+        if (!cached) {
+            LedgerCache.shared().invalidate(state.ledger.currentUserId(), LedgerCache.Table.TRANSACTIONS);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package benchmark;
+
+import database.DatabaseConnection;
+import database.DatabaseInitializer;
+import entity.CategoryOption;
+import entity.Transaction;
+import repository.TransactionRepository;
+import service.AuthService;
+import service.FinanceService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Scratch database with {@code users} users of {@code transactionsPerUser}
+ * transactions each, spread over the last {@link #HISTORY_DAYS} days.
+ * <p>
+ * {@code cashier.db.url} is read once per JVM, so the ledger is built once per
+ * benchmark fork and shared by every state in it. Data is generated from a
+ * fixed seed, so runs with the same parameters measure the same rows. The
+ * first user is logged in afterwards, since the services work on the current
+ * user.
+ */
+public final class SyntheticLedger {
+    public static final int HISTORY_DAYS = 3 * 365;
+    public static final String PASSWORD = "bench";
+
+    private static final int INSERT_CHUNK = 50_000;
+    private static final String[] EXPENSE_CATEGORIES = {
+            "Groceries", "Rent", "Transport", "Utilities", "Dining", "Health", "Travel", "Shopping"};
+    private static final String[] INCOME_CATEGORIES = {"Salary", "Freelance"};
+
+    private static SyntheticLedger current = null;
+
+    private final int users;
+    private final int transactionsPerUser;
+    private final List<Integer> userIds;
+    private final LocalDate lastDate;
+
+    private SyntheticLedger(int users, int transactionsPerUser, List<Integer> userIds, LocalDate lastDate) {
+        this.users = users;
+        this.transactionsPerUser = transactionsPerUser;
+        this.userIds = userIds;
+        this.lastDate = lastDate;
+    }
+
+    public static synchronized SyntheticLedger open(int users, int transactionsPerUser) {
+        if (current != null) {
+            if (current.users != users || current.transactionsPerUser != transactionsPerUser) {
+                throw new IllegalStateException("A fork holds one ledger; run different sizes in separate forks");
+            }
+            return current;
+        }
+
+        File db;
+        try {
+            db = File.createTempFile("cashier-bench", ".db");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        db.deleteOnExit();
+        System.setProperty("cashier.db.url", "jdbc:sqlite:" + db.getAbsolutePath());
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            DatabaseInitializer.init();
+            current = generate(users, transactionsPerUser);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot initialize the benchmark database", e);
+        } finally {
+            System.setOut(console);
+        }
+        return current;
+    }
+
+    public static synchronized void close() {
+        if (current != null) {
+            DatabaseConnection.closeConnection();
+            current = null;
+        }
+    }
+
+    /** Id of the logged-in user, whose ledger the service benchmarks read. */
+    public int currentUserId() {
+        return userIds.get(0);
+    }
+
+    public LocalDate lastDate() {
+        return lastDate;
+    }
+
+    public LocalDate firstDate() {
+        return lastDate.minusDays(HISTORY_DAYS - 1);
+    }
+
+    public int transactionsPerUser() {
+        return transactionsPerUser;
+    }
+
+    /** Fresh, unsaved transactions for insert benchmarks; ids are filled in on save. */
+    public List<Transaction> newTransactions(int count, long seed) {
+        Random random = new Random(seed);
+        List<Transaction> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(randomTransaction(random, i, null));
+        }
+        return rows;
+    }
+
+    private static SyntheticLedger generate(int users, int transactionsPerUser) {
+        AuthService auth = new AuthService();
+        FinanceService finance = new FinanceService();
+        TransactionRepository repository = new TransactionRepository();
+        Random random = new Random(42);
+        LocalDate lastDate = LocalDate.now();
+        List<Integer> userIds = new ArrayList<>(users);
+
+        for (int u = 0; u < users; u++) {
+            String username = "bench" + u;
+            auth.register(username, PASSWORD, null);
+            auth.login(username, PASSWORD);
+            int userId = auth.getCurrentUserId();
+            userIds.add(userId);
+
+            for (String name : EXPENSE_CATEGORIES) finance.addCategory(name, "EXPENSE");
+            for (String name : INCOME_CATEGORIES) finance.addCategory(name, "INCOME");
+            List<CategoryOption> expense = finance.getCategoriesByType("EXPENSE");
+            List<CategoryOption> income = finance.getCategoriesByType("INCOME");
+            finance.addGoal("Emergency fund", 1_000_000, lastDate.plusYears(1));
+            finance.addGoal("Vacation", 250_000, lastDate.plusMonths(6));
+
+            List<Transaction> chunk = new ArrayList<>(INSERT_CHUNK);
+            for (int i = 0; i < transactionsPerUser; i++) {
+                Transaction t = randomTransaction(random, i, lastDate);
+                // One row in ten stays uncategorized
+                List<CategoryOption> categories = t.getType().equals("INCOME") ? income : expense;
+                if (random.nextInt(10) != 0) {
+                    t.setCategoryId((long) categories.get(random.nextInt(categories.size())).id());
+                }
+                chunk.add(t);
+                if (chunk.size() == INSERT_CHUNK) {
+                    repository.saveAll(userId, chunk, 2_000);
+                    chunk.clear();
+                }
+            }
+            repository.saveAll(userId, chunk, 2_000);
+            auth.logout();
+        }
+
+        auth.login("bench0", PASSWORD);
+        return new SyntheticLedger(users, transactionsPerUser, userIds, lastDate);
+    }
+
+    private static Transaction randomTransaction(Random random, int index, LocalDate lastDate) {
+        LocalDate end = lastDate != null ? lastDate : LocalDate.now();
+        Transaction t = new Transaction();
+        t.setType(random.nextInt(4) == 0 ? "INCOME" : "EXPENSE");
+        t.setAmount(100 + random.nextInt(100_000));
+        t.setDate(end.minusDays(random.nextInt(HISTORY_DAYS)));
+        t.setDescription("Statement line " + index);
+        return t;
+    }
+}
@@ -1,10 +1,71 @@
+import api.ApiServer;
+import database.ConnectionPool;
+import database.DatabaseConnection;
 import database.DatabaseInitializer;
+import repository.DataAccessException;
+import service.LedgerCache;
+import service.SessionStore;
+import service.TransactionJournal;
 import ui.ConsoleUI;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+
 public class Main {
     public static void main(String[] args) {
-        DatabaseInitializer.init();
+        try {
+            DatabaseInitializer.init();
+        } catch (SQLException | DataAccessException | IllegalStateException e) {
+            System.err.println("❌ Database initialization failed: " + e.getMessage());
+            DatabaseConnection.closeConnection();
+            System.exit(1);
+        }
+        TransactionJournal.startConfigured();
+        SessionStore.startConfigured();
+
+        // --server [port] serves the HTTP API instead of the console
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args.length > 1 ? Integer.parseInt(args[1]) : ApiServer.DEFAULT_PORT);
+            return;
+        }
+
         ConsoleUI ui = new ConsoleUI();
         ui.start();
+        shutdown();
+    }
+
+    private static void startServer(int port) {
+        ApiServer server;
+        try {
+            // Plain HTTP: passwords and bearer tokens travel unencrypted, so only local clients are served
+            server = ApiServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            System.err.println("❌ Could not start API server: " + e.getMessage());
+            shutdown();
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            shutdown();
+        }, "api-shutdown"));
+        InetSocketAddress address = server.getAddress();
+        System.out.println("✅ API listening on http://" + address.getHostString() + ":" + address.getPort() + "/api");
+    }
+
+    private static void shutdown() {
+        // Read before the pools close, while the counters are still there
+        ConnectionPool.StatementCacheStats statements = DatabaseConnection.getStatementCacheStats();
+        System.out.printf("📊 Statement cache: %.1f%% hits (%d hits, %d misses, %d evictions)%n",
+                statements.hitRate() * 100, statements.hits(), statements.misses(), statements.evictions());
+        LedgerCache.Stats ledgers = LedgerCache.shared().stats();
+        System.out.printf("📊 Ledger cache: %.1f%% hits (%d hits, %d misses, %d evictions, %d invalidations)%n",
+                ledgers.hitRate() * 100, ledgers.hits(), ledgers.misses(), ledgers.evictions(), ledgers.invalidations());
+
+        SessionStore.closeShared();
+        TransactionJournal.closeShared();
+        DatabaseConnection.closeConnection();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,197 @@
+package analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Aggregations over {@link TransactionColumns}.
+ * <p>
+ * Every query is a single pass over the primitive arrays. Income and expense
+ * are split with arithmetic on the type byte instead of a branch, so the inner
+ * loops stay simple enough for the JIT to unroll and vectorize. Day ranges are
+ * inclusive epoch days. When the columns are in date order, the range is found
+ * by binary search rather than filtering every row.
+ */
+public final class ColumnarAnalytics {
+
+    /** Per-month totals; index {@code i} is {@link #month(int) month(i)}. */
+    public record MonthlyTotals(int firstMonth, long[] income, long[] expense, int[] count) {
+        public int months() {
+            return income.length;
+        }
+
+        public YearMonth month(int index) {
+            int key = firstMonth + index;
+            return YearMonth.of(key / 12, key % 12 + 1);
+        }
+    }
+
+    private final TransactionColumns columns;
+
+    public ColumnarAnalytics(TransactionColumns columns) {
+        this.columns = columns;
+    }
+
+    public MonthlyTotals totalsByMonth(int fromDay, int toDay) {
+        int[] days = columns.epochDays();
+        int[] months = columns.months();
+        long[] amounts = columns.amounts();
+        byte[] types = columns.types();
+
+        int firstMonth = monthKey(fromDay);
+        int monthCount = monthKey(toDay) - firstMonth + 1;
+        long[] income = new long[Math.max(monthCount, 0)];
+        long[] expense = new long[income.length];
+        int[] count = new int[income.length];
+        if (monthCount <= 0) {
+            return new MonthlyTotals(firstMonth, income, expense, count);
+        }
+
+        int from = lowerBound(fromDay);
+        int to = upperBound(toDay);
+        boolean filter = !columns.isSortedByDay();
+        for (int i = from; i < to; i++) {
+            if (filter && (days[i] < fromDay || days[i] > toDay)) continue;
+            int m = months[i] - firstMonth;
+            long isExpense = types[i];
+            expense[m] += amounts[i] * isExpense;
+            income[m] += amounts[i] * (1 - isExpense);
+            count[m]++;
+        }
+        return new MonthlyTotals(firstMonth, income, expense, count);
+    }
+
+    /**
+     * Totals of one type per category id.
+     *
+     * @return array indexed by category id; index 0 holds uncategorized rows
+     */
+    public long[] totalsByCategory(byte type, int fromDay, int toDay) {
+        int[] days = columns.epochDays();
+        long[] amounts = columns.amounts();
+        int[] categories = columns.categories();
+        byte[] types = columns.types();
+        long[] totals = new long[columns.maxCategory() + 1];
+
+        int from = lowerBound(fromDay);
+        int to = upperBound(toDay);
+        boolean filter = !columns.isSortedByDay();
+        for (int i = from; i < to; i++) {
+            if (filter && (days[i] < fromDay || days[i] > toDay)) continue;
+            totals[categories[i]] += amounts[i] * (types[i] == type ? 1 : 0);
+        }
+        return totals;
+    }
+
+    /**
+     * Trailing-window sums of one type: element {@code d} is the total of the
+     * {@code windowDays} days ending on {@code fromDay + d}.
+     */
+    public long[] rollingTotals(byte type, int fromDay, int toDay, int windowDays) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("Window must be at least one day");
+        }
+        if (toDay < fromDay) return new long[0];
+
+        // Daily totals from the first day any window reaches back to
+        int start = fromDay - windowDays + 1;
+        long[] daily = dailyTotals(type, start, toDay);
+
+        long[] rolling = new long[toDay - fromDay + 1];
+        long window = 0;
+        for (int d = 0; d < daily.length; d++) {
+            window += daily[d];
+            if (d >= windowDays) {
+                window -= daily[d - windowDays];
+            }
+            if (d >= windowDays - 1) {
+                rolling[d - windowDays + 1] = window;
+            }
+        }
+        return rolling;
+    }
+
+    /**
+     * Nearest-rank percentiles of single transaction amounts of one type.
+     *
+     * @param percentiles values in (0, 100]
+     * @return one amount per requested percentile, all 0 if there are no matching rows
+     */
+    public long[] percentiles(byte type, int fromDay, int toDay, double... percentiles) {
+        long[] sample = amounts(type, fromDay, toDay);
+        Arrays.sort(sample);
+
+        long[] result = new long[percentiles.length];
+        if (sample.length == 0) return result;
+        for (int p = 0; p < percentiles.length; p++) {
+            if (percentiles[p] <= 0 || percentiles[p] > 100) {
+                throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percentiles[p]);
+            }
+            int rank = (int) Math.ceil(percentiles[p] / 100 * sample.length);
+            result[p] = sample[Math.max(rank, 1) - 1];
+        }
+        return result;
+    }
+
+    private long[] dailyTotals(byte type, int fromDay, int toDay) {
+        int[] days = columns.epochDays();
+        long[] amounts = columns.amounts();
+        byte[] types = columns.types();
+        long[] daily = new long[toDay - fromDay + 1];
+
+        int from = lowerBound(fromDay);
+        int to = upperBound(toDay);
+        boolean filter = !columns.isSortedByDay();
+        for (int i = from; i < to; i++) {
+            if (filter && (days[i] < fromDay || days[i] > toDay)) continue;
+            daily[days[i] - fromDay] += amounts[i] * (types[i] == type ? 1 : 0);
+        }
+        return daily;
+    }
+
+    private long[] amounts(byte type, int fromDay, int toDay) {
+        int[] days = columns.epochDays();
+        long[] amounts = columns.amounts();
+        byte[] types = columns.types();
+        long[] matching = new long[upperBound(toDay) - lowerBound(fromDay)];
+
+        int n = 0;
+        boolean filter = !columns.isSortedByDay();
+        for (int i = lowerBound(fromDay), to = upperBound(toDay); i < to; i++) {
+            if (types[i] != type) continue;
+            if (filter && (days[i] < fromDay || days[i] > toDay)) continue;
+            matching[n++] = amounts[i];
+        }
+        return Arrays.copyOf(matching, n);
+    }
+
+    // First row on or after fromDay; 0 when the rows are not in date order
+    private int lowerBound(int fromDay) {
+        if (!columns.isSortedByDay()) return 0;
+        int[] days = columns.epochDays();
+        int lo = 0, hi = columns.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < fromDay) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // First row after toDay; size() when the rows are not in date order
+    private int upperBound(int toDay) {
+        if (!columns.isSortedByDay()) return columns.size();
+        int[] days = columns.epochDays();
+        int lo = 0, hi = columns.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] <= toDay) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int monthKey(int epochDay) {
+        YearMonth month = YearMonth.from(LocalDate.ofEpochDay(epochDay));
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+}
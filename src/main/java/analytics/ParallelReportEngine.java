@@ -0,0 +1,132 @@
+package analytics;
+
+import database.DatabaseConnection;
+import repository.DataAccessException;
+
+import java.io.Serial;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Per-month, per-category totals over long date ranges, computed in parallel.
+ * <p>
+ * The month range is split in halves until each partition spans at most
+ * {@link #PARTITION_MONTHS} months. Each partition runs one grouped query on
+ * its own reader connection; in WAL mode readers do not block each other.
+ * Partitions cover disjoint months and return rows in order, so merging two
+ * halves is a concatenation.
+ * <p>
+ * All reports share one pool of {@link #MAX_PARALLEL_PARTITIONS} workers, and
+ * a partition only queries while it holds one of as many permits. However
+ * many reports run at once, they keep at most half of the reader pool busy,
+ * and the other readers stay free for listings and logins.
+ */
+public class ParallelReportEngine {
+    public static final int PARTITION_MONTHS = 6;
+    public static final int MAX_PARALLEL_PARTITIONS = Math.max(1,
+            Math.min(Runtime.getRuntime().availableProcessors(), DatabaseConnection.getMaxReadConnections() / 2));
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(MAX_PARALLEL_PARTITIONS);
+    // The pool may add compensation threads while workers block in join(); this bounds connections regardless
+    private static final Semaphore QUERY_PERMITS = new Semaphore(MAX_PARALLEL_PARTITIONS, true);
+
+    /** One (month, type, category) group; categoryId 0 means uncategorized. */
+    public record ReportRow(YearMonth month, String type, long categoryId, long total, long count) {}
+
+    public static final String PARTITION_SQL = """
+        SELECT substr(date, 1, 7) as month, type, COALESCE(category_id, 0), SUM(amount), COUNT(*)
+        FROM transactions
+        WHERE user_id = ? AND date BETWEEN ? AND ?
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        """;
+
+    /**
+     * Rows for every month in {@code [from, to]} that has transactions, ordered
+     * by month, type and category id.
+     */
+    public List<ReportRow> monthlyByCategory(int userId, YearMonth from, YearMonth to) throws SQLException {
+        if (to.isBefore(from)) return new ArrayList<>();
+
+        try {
+            return POOL.invoke(new Partition(userId, from, to));
+        } catch (DataAccessException e) {
+            // A failure in another worker may arrive re-wrapped, so look down the chain
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException sqlException) throw sqlException;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Partition extends RecursiveTask<List<ReportRow>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int userId;
+        private final YearMonth from;
+        private final YearMonth to;
+
+        private Partition(int userId, YearMonth from, YearMonth to) {
+            this.userId = userId;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ReportRow> compute() {
+            long months = from.until(to, ChronoUnit.MONTHS) + 1;
+            if (months <= PARTITION_MONTHS) {
+                try {
+                    QUERY_PERMITS.acquire();
+                    try {
+                        return query();
+                    } finally {
+                        QUERY_PERMITS.release();
+                    }
+                } catch (SQLException e) {
+                    throw new DataAccessException("Report partition " + from + ".." + to + " failed", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DataAccessException("Report partition " + from + ".." + to + " interrupted",
+                            new SQLException(e));
+                }
+            }
+
+            YearMonth middle = from.plusMonths(months / 2 - 1);
+            Partition left = new Partition(userId, from, middle);
+            Partition right = new Partition(userId, middle.plusMonths(1), to);
+            right.fork();
+            List<ReportRow> rows = left.compute();
+            rows.addAll(right.join());
+            return rows;
+        }
+
+        private List<ReportRow> query() throws SQLException {
+            List<ReportRow> rows = new ArrayList<>();
+            try (Connection conn = DatabaseConnection.getReadConnection()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(PARTITION_SQL)) {
+                    pstmt.setInt(1, userId);
+                    pstmt.setString(2, from.atDay(1).toString());
+                    pstmt.setString(3, to.atEndOfMonth().toString());
+                    ResultSet rs = pstmt.executeQuery();
+
+                    while (rs.next()) {
+                        rows.add(new ReportRow(YearMonth.parse(rs.getString(1)), rs.getString(2),
+                                rs.getLong(3), rs.getLong(4), rs.getLong(5)));
+                    }
+                }
+            }
+            return rows;
+        }
+    }
+}
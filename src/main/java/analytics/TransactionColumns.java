@@ -0,0 +1,218 @@
+package analytics;
+
+import database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One user's transaction history held as parallel primitive arrays, one per
+ * column, for {@link ColumnarAnalytics}.
+ * <p>
+ * About 21 bytes per row, so 10M transactions fit in roughly 210 MB. Rows are
+ * append-only: every read also records the table's highest id, and
+ * {@link #appendNewer} pulls the user's rows above it. Edits and deletes are
+ * not tracked; reload instead.
+ */
+public final class TransactionColumns {
+    public static final byte INCOME = 0;
+    public static final byte EXPENSE = 1;
+
+    /** Full history in date order, through the (user_id, date, id) index. */
+    public static final String LOAD_SQL = """
+        SELECT date, amount, COALESCE(category_id, 0), type
+        FROM transactions
+        WHERE user_id = ?
+        ORDER BY date, id
+        """;
+    /**
+     * Rows added since the last read, in id order. The unary {@code +} keeps
+     * SQLite off the user_id indexes, so this is a rowid range seek that reads
+     * only rows inserted since, whoever they belong to, instead of every index
+     * entry of the user. The bound is table-wide, so a user with no recent
+     * rows does not rescan everything inserted after their last one.
+     */
+    public static final String APPEND_SQL = """
+        SELECT date, amount, COALESCE(category_id, 0), type
+        FROM transactions
+        WHERE id > ? AND +user_id = ?
+        ORDER BY id
+        """;
+    /** Highest id in the table, read in the same transaction as the rows. */
+    public static final String WATERMARK_SQL = "SELECT COALESCE(MAX(id), 0) FROM transactions";
+
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    private int size = 0;
+    private int[] epochDays;
+    private int[] months;       // year * 12 + (month - 1), derived from epochDays on append
+    private long[] amounts;     // cents, always positive
+    private int[] categories;   // 0 = uncategorized
+    private byte[] types;
+
+    private long watermark = 0;
+    private int maxCategory = 0;
+    private boolean sortedByDay = true;
+    private int lastMonthDay = Integer.MIN_VALUE;
+    private int lastMonth;
+
+    public TransactionColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransactionColumns(int capacity) {
+        capacity = Math.max(capacity, 16);
+        epochDays = new int[capacity];
+        months = new int[capacity];
+        amounts = new long[capacity];
+        categories = new int[capacity];
+        types = new byte[capacity];
+    }
+
+    public static TransactionColumns load(int userId) throws SQLException {
+        TransactionColumns columns = new TransactionColumns();
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+                long watermark = readWatermark(conn);
+                pstmt.setInt(1, userId);
+                columns.appendAll(pstmt.executeQuery());
+                conn.commit();
+                columns.watermark = watermark;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Appends the user's transactions with an id above {@link #watermark()}. A
+     * new row dated before the last one loaded clears {@link #isSortedByDay()}.
+     *
+     * @return number of rows appended
+     */
+    public int appendNewer(int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(APPEND_SQL)) {
+                long next = readWatermark(conn);
+                if (next == watermark) {
+                    conn.commit();
+                    return 0;
+                }
+                pstmt.setLong(1, watermark);
+                pstmt.setInt(2, userId);
+                int appended = appendAll(pstmt.executeQuery());
+                conn.commit();
+                watermark = next;
+                return appended;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Opens the read transaction, so the rows that follow are exactly those up to the watermark
+    private static long readWatermark(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(WATERMARK_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private int appendAll(ResultSet rs) throws SQLException {
+        int appended = 0;
+        while (rs.next()) {
+            append(parseEpochDay(rs.getString(1)), rs.getLong(2), rs.getInt(3),
+                    "INCOME".equals(rs.getString(4)) ? INCOME : EXPENSE);
+            appended++;
+        }
+        return appended;
+    }
+
+    public void append(int epochDay, long amount, int categoryId, byte type) {
+        if (size == epochDays.length) {
+            grow();
+        }
+        if (size > 0 && epochDay < epochDays[size - 1]) {
+            sortedByDay = false;
+        }
+
+        // Rows mostly arrive in date order, so the previous row's month usually applies
+        if (epochDay != lastMonthDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            lastMonthDay = epochDay;
+            lastMonth = date.getYear() * 12 + date.getMonthValue() - 1;
+        }
+        epochDays[size] = epochDay;
+        months[size] = lastMonth;
+        amounts[size] = amount;
+        categories[size] = categoryId;
+        types[size] = type;
+        size++;
+
+        maxCategory = Math.max(maxCategory, categoryId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Highest transaction id in the table at the last read; {@link #appendNewer} seeks from it. */
+    public long watermark() {
+        return watermark;
+    }
+
+    public int maxCategory() {
+        return maxCategory;
+    }
+
+    /** True while rows were appended in date order, which lets range queries binary search. */
+    public boolean isSortedByDay() {
+        return sortedByDay;
+    }
+
+    // Raw column access for ColumnarAnalytics; only the first size() entries are valid
+    int[] epochDays() { return epochDays; }
+    int[] months() { return months; }
+    long[] amounts() { return amounts; }
+    int[] categories() { return categories; }
+    byte[] types() { return types; }
+
+    private void grow() {
+        int capacity = epochDays.length + (epochDays.length >> 1);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        months = Arrays.copyOf(months, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    // Dates are stored as ISO yyyy-MM-dd; parsing by hand skips the DateTimeFormatter on large loads
+    public static int parseEpochDay(String date) {
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return (int) LocalDate.parse(date).toEpochDay();
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid date: " + s);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
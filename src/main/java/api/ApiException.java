@@ -0,0 +1,32 @@
+package api;
+
+import java.io.Serial;
+
+/** Ends a request with the given HTTP status and an {@code {"error": message}} body. */
+class ApiException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+
+    static ApiException methodNotAllowed(String method) {
+        return new ApiException(405, "Method " + method + " not allowed here");
+    }
+}
@@ -0,0 +1,117 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import repository.DataAccessException;
+import security.ThrottledException;
+import service.AuthService;
+import service.Session;
+import service.SessionContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLTransientException;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Common request handling: credentials, the per-request
+ * {@link SessionContext} and the mapping of failures to status codes.
+ * <p>
+ * Every request runs on its own virtual thread with a fresh context bound for
+ * its duration, so the services see exactly the user whose credentials came
+ * with the request. Clients send either {@code Authorization: Bearer <token>}
+ * with a token from {@code /api/login}, which is checked in memory, or HTTP
+ * Basic credentials on each call, which go through the recent-login cache and
+ * the password hash. Throttled logins get 429 (account) or 503 (server busy)
+ * with Retry-After.
+ */
+abstract class ApiHandler implements HttpHandler {
+    private final boolean loginRequired;
+    protected final AuthService authService = new AuthService();
+
+    protected ApiHandler(boolean loginRequired) {
+        this.loginRequired = loginRequired;
+    }
+
+    /** Serves one request; the session, if any, is already bound. */
+    protected abstract void handle(ApiRequest request) throws IOException;
+
+    @Override
+    @SuppressWarnings("try") // scope is only there to be closed
+    public final void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            ApiRequest request = new ApiRequest(exchange);
+            try {
+                SessionContext context = loginRequired ? authenticate(exchange) : new SessionContext();
+                try (SessionContext.Scope scope = SessionContext.bind(context)) {
+                    handle(request);
+                }
+            } catch (ApiException e) {
+                if (e.getStatus() == 401) {
+                    exchange.getResponseHeaders().add("WWW-Authenticate", "Bearer realm=\"cashier\"");
+                    exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"cashier\", charset=\"UTF-8\"");
+                }
+                sendError(request, e.getStatus(), e.getMessage());
+            } catch (ThrottledException e) {
+                exchange.getResponseHeaders().set("Retry-After", Long.toString(e.getRetryAfterSeconds()));
+                sendError(request, e.isOverloaded() ? 503 : 429, e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(request, 400, e.getMessage());
+            } catch (DataAccessException e) {
+                System.err.println("API database error: " + e.getMessage());
+                if (e.getCause() instanceof SQLTransientException) {
+                    // Every pooled connection stayed busy for the whole borrow timeout
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    sendError(request, 503, "Database busy");
+                } else {
+                    sendError(request, 500, "Database error");
+                }
+            } catch (RuntimeException e) {
+                System.err.println("API request failed: " + e);
+                sendError(request, 500, "Internal error");
+            }
+        }
+    }
+
+    private SessionContext authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            String token = header.substring(7).trim();
+            Session session = authService.resumeSession(token);
+            if (session == null) {
+                throw new ApiException(401, "Invalid or expired session token");
+            }
+            return new SessionContext(session, token);
+        }
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            throw new ApiException(401, "Authentication required");
+        }
+
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(401, "Malformed credentials");
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            throw new ApiException(401, "Malformed credentials");
+        }
+
+        Session session = authService.authenticate(credentials.substring(0, colon), credentials.substring(colon + 1));
+        if (session == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        return new SessionContext(session);
+    }
+
+    // A failure after the headers went out can only be logged; the client sees a cut-off body
+    private static void sendError(ApiRequest request, int status, String message) throws IOException {
+        if (request.isSent()) {
+            System.err.println("API request failed after response started: " + message);
+            return;
+        }
+        request.sendError(status, message);
+    }
+}
@@ -0,0 +1,202 @@
+package api;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One API call: the path below the handler's context, query parameters, the
+ * JSON body and the response. Exactly one {@code send} method is called per
+ * request.
+ */
+final class ApiRequest {
+    // Request bodies are small JSON objects; anything larger is refused unread
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private List<String> path;
+    private Map<String, String> query;
+    private Map<String, Object> body;
+    private boolean sent = false;
+
+    ApiRequest(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    String method() {
+        return exchange.getRequestMethod();
+    }
+
+    /** Path segments after the context path, e.g. {@code ["42"]} for {@code /api/transactions/42}. */
+    List<String> path() {
+        if (path == null) {
+            path = parsePath(exchange);
+        }
+        return path;
+    }
+
+    String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    String query(String name) {
+        if (query == null) {
+            query = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return query.get(name);
+    }
+
+    int queryInt(String name, int defaultValue) {
+        String value = query(name);
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("Parameter '" + name + "' must be a number");
+        }
+    }
+
+    /** The request body as a JSON object; parsed on first use. */
+    Map<String, Object> body() throws IOException {
+        if (body != null) return body;
+
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        Object parsed = Json.parse(new String(bytes, StandardCharsets.UTF_8));
+        if (!(parsed instanceof Map<?, ?>)) {
+            throw ApiException.badRequest("Request body must be a JSON object");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) parsed;
+        body = object;
+        return body;
+    }
+
+    String bodyString(String field) throws IOException {
+        Object value = body().get(field);
+        if (value == null) return null;
+        if (!(value instanceof String s)) {
+            throw ApiException.badRequest("Field '" + field + "' must be a string");
+        }
+        return s;
+    }
+
+    String requireString(String field) throws IOException {
+        String value = bodyString(field);
+        if (value == null || value.isBlank()) {
+            throw ApiException.badRequest("Field '" + field + "' is required");
+        }
+        return value;
+    }
+
+    Long bodyLong(String field) throws IOException {
+        Object value = body().get(field);
+        if (value == null) return null;
+        if (!(value instanceof Long l)) {
+            throw ApiException.badRequest("Field '" + field + "' must be an integer");
+        }
+        return l;
+    }
+
+    long requireLong(String field) throws IOException {
+        Long value = bodyLong(field);
+        if (value == null) {
+            throw ApiException.badRequest("Field '" + field + "' is required");
+        }
+        return value;
+    }
+
+    /** An ISO-8601 date field, or {@code null} if absent. */
+    LocalDate bodyDate(String field) throws IOException {
+        String value = bodyString(field);
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    /** Sets a header of the response that is sent next. */
+    void setResponseHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    boolean isSent() {
+        return sent;
+    }
+
+    void sendJson(int status, Object value) throws IOException {
+        byte[] bytes = Json.write(value).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        sent = true;
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    void sendEmpty(int status) throws IOException {
+        sent = true;
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    void sendError(int status, String message) throws IOException {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", message);
+        sendJson(status, error);
+    }
+
+    /** Sends {@code file} as an attachment named {@code downloadName}. */
+    void sendFile(Path file, String contentType, String downloadName) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType);
+        headers.set("Content-Disposition", "attachment; filename=\"" + downloadName + "\"");
+        sent = true;
+        exchange.sendResponseHeaders(200, Files.size(file));
+        try (OutputStream out = exchange.getResponseBody()) {
+            Files.copy(file, out);
+        }
+    }
+
+    private static List<String> parsePath(HttpExchange exchange) {
+        String contextPath = exchange.getHttpContext().getPath();
+        String rest = exchange.getRequestURI().getPath().substring(contextPath.length());
+        // The server matches contexts by plain prefix, so /api/goalsX reaches /api/goals
+        if (!rest.isEmpty() && !rest.startsWith("/")) {
+            throw ApiException.notFound("No such resource");
+        }
+
+        List<String> segments = new ArrayList<>();
+        for (String segment : rest.split("/")) {
+            if (!segment.isEmpty()) segments.add(segment);
+        }
+        return List.copyOf(segments);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
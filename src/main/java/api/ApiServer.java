@@ -0,0 +1,76 @@
+package api;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP/JSON API over the finance, analytics and export services,
+ * built on the JDK's {@code com.sun.net.httpserver}.
+ * <p>
+ * Every request runs on its own virtual thread. A request waiting for a
+ * database connection or for an export parks without holding an OS
+ * thread, so thousands of open requests cost little more than their sockets.
+ * Throughput is still bounded by the database pools: one writer and
+ * {@link database.DatabaseConnection#getMaxReadConnections()} readers.
+ * <p>
+ * Endpoints, all under {@code /api}. All but {@code register} and
+ * {@code login} require a bearer token from either of those, or HTTP Basic
+ * credentials:
+ * <pre>
+ * POST   /api/register                          POST /api/login
+ * POST   /api/logout
+ * GET    /api/transactions?limit=&amp;cursor=     POST /api/transactions
+ * PUT    /api/transactions/{id}                 DELETE /api/transactions/{id}
+ * GET    /api/categories[?type=]                POST /api/categories
+ * GET    /api/goals                             POST /api/goals
+ * GET    /api/summary/{totals|monthly|categories|health|distribution}
+ * GET    /api/summary/report?from=&amp;to=
+ * GET    /api/export?format=&amp;gzip=             GET  /api/export/report
+ * </pre>
+ */
+public final class ApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    // Connections the kernel queues while the dispatcher thread accepts
+    private static final int BACKLOG = 1024;
+    private static final int STOP_DELAY_SECONDS = 2;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private ApiServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static ApiServer start(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, BACKLOG);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+
+        server.createContext("/api/register", new RegisterHandler());
+        server.createContext("/api/login", new LoginHandler());
+        server.createContext("/api/logout", new LogoutHandler());
+        server.createContext("/api/transactions", new TransactionHandler());
+        server.createContext("/api/categories", new CategoryHandler());
+        server.createContext("/api/goals", new GoalHandler());
+        server.createContext("/api/summary", new SummaryHandler());
+        server.createContext("/api/export", new ExportHandler());
+
+        server.start();
+        return new ApiServer(server, executor);
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /** Stops accepting, gives running requests a moment to finish, then waits for their threads. */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+    }
+}
@@ -0,0 +1,77 @@
+package api;
+
+import entity.CategoryOption;
+import entity.CategoryUsage;
+import service.FinanceService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /api/categories}: all categories with usage counts, or the pick list
+ * of one type with {@code ?type=INCOME|EXPENSE}; POST adds a category.
+ */
+final class CategoryHandler extends ApiHandler {
+    private final FinanceService financeService = new FinanceService();
+
+    CategoryHandler() {
+        super(true);
+    }
+
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        if (!request.path().isEmpty()) {
+            throw ApiException.notFound("No such resource");
+        }
+        switch (request.method()) {
+            case "GET" -> list(request);
+            case "POST" -> add(request);
+            default -> throw ApiException.methodNotAllowed(request.method());
+        }
+    }
+
+    private void list(ApiRequest request) throws IOException {
+        String type = request.query("type");
+        List<Object> items = new ArrayList<>();
+        if (type == null || type.isEmpty()) {
+            for (CategoryUsage category : financeService.getCategories()) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("id", category.id());
+                json.put("name", category.name());
+                json.put("type", category.type());
+                json.put("usage_count", category.usageCount());
+                items.add(json);
+            }
+        } else {
+            for (CategoryOption option : financeService.getCategoriesByType(checkType(type))) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("id", option.id());
+                json.put("name", option.name());
+                items.add(json);
+            }
+        }
+        request.sendJson(200, items);
+    }
+
+    // POST {"name": "Rent", "type": "EXPENSE"}
+    private void add(ApiRequest request) throws IOException {
+        String name = request.requireString("name").trim();
+        String type = checkType(request.requireString("type"));
+
+        if (!financeService.addCategory(name, type)) {
+            throw new ApiException(409, "Category '" + name + "' could not be added");
+        }
+        request.sendJson(201, Map.of("status", "created"));
+    }
+
+    private static String checkType(String type) {
+        String upper = type.toUpperCase();
+        if (!upper.equals("INCOME") && !upper.equals("EXPENSE")) {
+            throw ApiException.badRequest("Category type must be INCOME or EXPENSE");
+        }
+        return upper;
+    }
+}
@@ -0,0 +1,128 @@
+package api;
+
+import export.ExportFormat;
+import export.ExportJob;
+import service.ExportService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * {@code GET /api/export?format=csv&gzip=true} downloads the transaction
+ * history in any {@link ExportFormat} (by extension, default {@code csv});
+ * {@code GET /api/export/report} downloads the text financial report.
+ * <p>
+ * The export runs on the bounded API export pool ({@link ExportService#forApi()})
+ * into a temporary file, which is then sent and deleted. A slow client
+ * therefore only holds its own virtual thread, never an export thread. When
+ * the pool's queue is full the request gets 503 with Retry-After. An export
+ * still running after {@link #EXPORT_TIMEOUT_MILLIS} is cancelled and answered
+ * with 503; that also bounds the work done for a client that disconnected,
+ * which is only noticed once the file is sent.
+ */
+final class ExportHandler extends ApiHandler {
+    static final long EXPORT_TIMEOUT_MILLIS = 120_000;
+    private static final String BUSY_RETRY_AFTER_SECONDS = "5";
+
+    private final ExportService exportService = ExportService.forApi();
+
+    ExportHandler() {
+        super(true);
+    }
+
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        if (!request.method().equals("GET")) {
+            throw ApiException.methodNotAllowed(request.method());
+        }
+        List<String> path = request.path();
+        if (path.isEmpty()) {
+            exportTransactions(request);
+        } else if (path.size() == 1 && path.get(0).equals("report")) {
+            exportReport(request);
+        } else {
+            throw ApiException.notFound("No such resource");
+        }
+    }
+
+    private void exportTransactions(ApiRequest request) throws IOException {
+        String extension = request.query("format");
+        ExportFormat format;
+        try {
+            format = ExportFormat.fromFileName("export." + (extension == null ? "csv" : extension));
+        } catch (IllegalArgumentException e) {
+            throw ApiException.badRequest("Unsupported export format '" + extension + "'");
+        }
+        boolean gzip = Boolean.parseBoolean(request.query("gzip"));
+        String fileName = "transactions." + format.extension() + (gzip ? ExportFormat.GZIP_SUFFIX : "");
+
+        Path file = Files.createTempFile("cashier-export-", "-" + fileName);
+        try {
+            ExportJob job = start(request, () -> exportService.startTransactionsExport(file, format));
+            if (job == null) {
+                throw ApiException.notFound("No transactions to export");
+            }
+            await(job);
+            request.sendFile(file, gzip ? "application/gzip" : contentType(format), fileName);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void exportReport(ApiRequest request) throws IOException {
+        Path file = Files.createTempFile("cashier-report-", ".txt");
+        try {
+            ExportJob job = start(request, () -> exportService.startFinancialReport(file));
+            if (job == null) {
+                throw new ApiException(401, "Authentication required");
+            }
+            await(job);
+            request.sendFile(file, "text/plain; charset=utf-8", "financial_report.txt");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static ExportJob start(ApiRequest request, Supplier<ExportJob> starter) {
+        try {
+            return starter.get();
+        } catch (RejectedExecutionException e) {
+            request.setResponseHeader("Retry-After", BUSY_RETRY_AFTER_SECONDS);
+            throw new ApiException(503, "Too many exports in progress, try again shortly");
+        }
+    }
+
+    private static void await(ExportJob job) {
+        try {
+            ExportJob.Result result = job.await(EXPORT_TIMEOUT_MILLIS);
+            if (result == null) {
+                job.cancel();
+                throw new ApiException(503, "Export took too long and was cancelled");
+            }
+            if (result.cancelled()) {
+                throw new ApiException(500, "Export was cancelled");
+            }
+        } catch (ExecutionException e) {
+            System.err.println("Error exporting to file: " + e.getCause().getMessage());
+            throw new ApiException(500, "Export failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+            throw new ApiException(503, "Export interrupted");
+        }
+    }
+
+    private static String contentType(ExportFormat format) {
+        return switch (format) {
+            case TEXT -> "text/plain; charset=utf-8";
+            case CSV -> "text/csv; charset=utf-8";
+            case JSON_LINES -> "application/x-ndjson";
+            case COLUMNAR -> "application/octet-stream";
+        };
+    }
+}
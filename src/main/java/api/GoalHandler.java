@@ -0,0 +1,65 @@
+package api;
+
+import entity.GoalView;
+import service.FinanceService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** {@code /api/goals}: savings goals in target-date order; POST adds one. Amounts are cents. */
+final class GoalHandler extends ApiHandler {
+    private final FinanceService financeService = new FinanceService();
+
+    GoalHandler() {
+        super(true);
+    }
+
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        if (!request.path().isEmpty()) {
+            throw ApiException.notFound("No such resource");
+        }
+        switch (request.method()) {
+            case "GET" -> list(request);
+            case "POST" -> add(request);
+            default -> throw ApiException.methodNotAllowed(request.method());
+        }
+    }
+
+    private void list(ApiRequest request) throws IOException {
+        List<Object> items = new ArrayList<>();
+        for (GoalView goal : financeService.getGoals()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", goal.id());
+            json.put("name", goal.name());
+            json.put("target_amount_cents", goal.targetAmount());
+            json.put("current_amount_cents", goal.currentAmount());
+            json.put("target_date", goal.targetDate());
+            json.put("progress_percent", goal.progressPercent());
+            items.add(json);
+        }
+        request.sendJson(200, items);
+    }
+
+    // POST {"name": "Vacation", "target_amount_cents": 250000, "target_date": "2025-06-01"}
+    private void add(ApiRequest request) throws IOException {
+        String name = request.requireString("name").trim();
+        long target = request.requireLong("target_amount_cents");
+        if (target <= 0) {
+            throw ApiException.badRequest("Field 'target_amount_cents' must be positive");
+        }
+        LocalDate targetDate = request.bodyDate("target_date");
+        if (targetDate == null) {
+            throw ApiException.badRequest("Field 'target_date' is required");
+        }
+
+        if (!financeService.addGoal(name, target, targetDate)) {
+            throw new ApiException(500, "Goal could not be saved");
+        }
+        request.sendJson(201, Map.of("status", "created"));
+    }
+}
@@ -0,0 +1,46 @@
+package api;
+
+import service.Session;
+import service.SessionStore;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code POST /api/login}: checks the password once and returns a session
+ * token for {@code Authorization: Bearer} on later calls.
+ */
+final class LoginHandler extends ApiHandler {
+
+    LoginHandler() {
+        super(false);
+    }
+
+    // POST {"username": "...", "password": "..."}
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        if (!request.path().isEmpty()) {
+            throw ApiException.notFound("No such resource");
+        }
+        if (!request.method().equals("POST")) {
+            throw ApiException.methodNotAllowed(request.method());
+        }
+
+        Session session = authService.authenticate(request.requireString("username"), request.requireString("password"));
+        if (session == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        String token = authService.startSession(session);
+        request.sendJson(200, sessionJson(session, token));
+    }
+
+    static Map<String, Object> sessionJson(Session session, String token) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("user_id", session.userId());
+        json.put("username", session.username());
+        json.put("token", token);
+        json.put("expires_in", SessionStore.DEFAULT_TTL_MILLIS / 1000);
+        return json;
+    }
+}
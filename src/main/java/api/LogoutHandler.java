@@ -0,0 +1,24 @@
+package api;
+
+import java.io.IOException;
+
+/** {@code POST /api/logout}: revokes the bearer token the request came with. */
+final class LogoutHandler extends ApiHandler {
+
+    LogoutHandler() {
+        super(true);
+    }
+
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        if (!request.path().isEmpty()) {
+            throw ApiException.notFound("No such resource");
+        }
+        if (!request.method().equals("POST")) {
+            throw ApiException.methodNotAllowed(request.method());
+        }
+
+        authService.logout(false);
+        request.sendEmpty(204);
+    }
+}
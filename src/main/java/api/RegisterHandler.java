@@ -0,0 +1,36 @@
+package api;
+
+import service.Session;
+
+import java.io.IOException;
+
+/** {@code POST /api/register}: creates a user and returns a session token, as {@code /api/login} does. */
+final class RegisterHandler extends ApiHandler {
+
+    RegisterHandler() {
+        super(false);
+    }
+
+    // POST {"username": "...", "password": "...", "email": "..."}
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        if (!request.path().isEmpty()) {
+            throw ApiException.notFound("No such resource");
+        }
+        if (!request.method().equals("POST")) {
+            throw ApiException.methodNotAllowed(request.method());
+        }
+
+        String username = request.requireString("username").trim();
+        String password = request.requireString("password");
+        String email = request.bodyString("email");
+
+        // Registering logs in on this request's own context only. false means the name is
+        // taken; a database failure arrives as DataAccessException and ApiHandler answers 500/503.
+        if (!authService.register(username, password, email, false)) {
+            throw new ApiException(409, "Username '" + username + "' is not available");
+        }
+        Session session = authService.getCurrentSession();
+        request.sendJson(201, LoginHandler.sessionJson(session, authService.getCurrentToken()));
+    }
+}
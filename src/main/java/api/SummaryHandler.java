@@ -0,0 +1,87 @@
+package api;
+
+import analytics.ParallelReportEngine.ReportRow;
+import entity.PeriodTotals;
+import service.AnalyticsService;
+import service.TransactionService;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /api/summary/{report}}, read-only analytics: {@code totals} (cents),
+ * and {@code monthly}, {@code categories}, {@code health} and
+ * {@code distribution} exactly as {@link AnalyticsService} reports them.
+ * {@code report?from=yyyy-MM&to=yyyy-MM} lists per-month, per-category totals
+ * in cents, by default for the last 12 months.
+ */
+final class SummaryHandler extends ApiHandler {
+    static final int MAX_REPORT_MONTHS = 120;
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+    private final TransactionService transactionService = new TransactionService();
+
+    SummaryHandler() {
+        super(true);
+    }
+
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        List<String> path = request.path();
+        if (path.size() != 1) {
+            throw ApiException.notFound("Use /api/summary/{totals|monthly|categories|health|distribution|report}");
+        }
+        if (!request.method().equals("GET")) {
+            throw ApiException.methodNotAllowed(request.method());
+        }
+
+        Object report = switch (path.get(0)) {
+            case "totals" -> totals();
+            case "monthly" -> analyticsService.getMonthlySummary();
+            case "categories" -> analyticsService.getExpensesByCategory();
+            case "health" -> analyticsService.getFinancialHealth();
+            case "distribution" -> analyticsService.getExpenseDistribution();
+            case "report" -> monthlyReport(request);
+            default -> throw ApiException.notFound("Unknown report '" + path.get(0) + "'");
+        };
+        request.sendJson(200, report);
+    }
+
+    private List<Map<String, Object>> monthlyReport(ApiRequest request) {
+        String toParam = request.query("to");
+        String fromParam = request.query("from");
+        YearMonth to = toParam != null ? YearMonth.parse(toParam) : YearMonth.now();
+        YearMonth from = fromParam != null ? YearMonth.parse(fromParam) : to.minusMonths(11);
+        if (to.isBefore(from) || from.until(to, ChronoUnit.MONTHS) >= MAX_REPORT_MONTHS) {
+            throw ApiException.badRequest("Range must run forwards and span at most " + MAX_REPORT_MONTHS + " months");
+        }
+
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (ReportRow row : transactionService.getMonthlyCategoryReport(from, to)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("month", row.month().toString());
+            item.put("type", row.type());
+            item.put("category_id", row.categoryId());
+            item.put("total_cents", row.total());
+            item.put("count", row.count());
+            json.add(item);
+        }
+        return json;
+    }
+
+    private Map<String, Object> totals() {
+        PeriodTotals totals = analyticsService.getLifetimeTotals();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("income_cents", totals.income());
+        json.put("expense_cents", totals.expense());
+        json.put("balance_cents", totals.balance());
+        json.put("count", totals.count());
+        json.put("savings_rate", totals.savingsRate());
+        return json;
+    }
+}
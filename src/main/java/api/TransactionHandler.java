@@ -0,0 +1,145 @@
+package api;
+
+import entity.CategoryOption;
+import entity.TransactionView;
+import service.FinanceService;
+import service.TransactionPage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /api/transactions}: keyset-paginated listing, add, and update or
+ * delete by id. Amounts are integer cents ({@code amount_cents}), as in the
+ * JSON Lines export.
+ */
+final class TransactionHandler extends ApiHandler {
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final FinanceService financeService = new FinanceService();
+
+    TransactionHandler() {
+        super(true);
+    }
+
+    @Override
+    protected void handle(ApiRequest request) throws IOException {
+        List<String> path = request.path();
+        if (path.isEmpty()) {
+            switch (request.method()) {
+                case "GET" -> list(request);
+                case "POST" -> add(request);
+                default -> throw ApiException.methodNotAllowed(request.method());
+            }
+            return;
+        }
+        if (path.size() > 1) {
+            throw ApiException.notFound("No such resource");
+        }
+
+        int id = parseId(path.get(0));
+        switch (request.method()) {
+            case "PUT", "PATCH" -> update(request, id);
+            case "DELETE" -> delete(request, id);
+            default -> throw ApiException.methodNotAllowed(request.method());
+        }
+    }
+
+    // GET /api/transactions?limit=50&cursor=...
+    private void list(ApiRequest request) throws IOException {
+        int limit = request.queryInt("limit", FinanceService.DEFAULT_PAGE_SIZE);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw ApiException.badRequest("Parameter 'limit' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String cursor = request.query("cursor");
+        TransactionPage page = financeService.getTransactionPage(cursor == null || cursor.isEmpty() ? null : cursor, limit);
+
+        List<Object> items = new ArrayList<>(page.items().size());
+        for (TransactionView t : page.items()) {
+            items.add(toJson(t));
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("items", items);
+        json.put("next_cursor", page.nextCursor());
+        request.sendJson(200, json);
+    }
+
+    // POST {"type": "EXPENSE", "amount_cents": 1250, "date": "2024-05-01", "description": "...", "category_id": 3}
+    private void add(ApiRequest request) throws IOException {
+        String type = request.requireString("type").toUpperCase();
+        if (!type.equals("INCOME") && !type.equals("EXPENSE")) {
+            throw ApiException.badRequest("Field 'type' must be INCOME or EXPENSE");
+        }
+        long amount = request.requireLong("amount_cents");
+        if (amount <= 0) {
+            throw ApiException.badRequest("Field 'amount_cents' must be positive");
+        }
+        LocalDate date = request.bodyDate("date");
+        String description = request.bodyString("description");
+        Long categoryId = request.bodyLong("category_id");
+        if (categoryId != null && !isCategoryOf(type, categoryId)) {
+            throw ApiException.badRequest("Unknown " + type.toLowerCase() + " category " + categoryId);
+        }
+
+        if (!financeService.addTransaction(type, amount, date != null ? date : LocalDate.now(),
+                description != null ? description : "", categoryId)) {
+            throw new ApiException(500, "Transaction could not be saved");
+        }
+        request.sendJson(201, Map.of("status", "created"));
+    }
+
+    // PUT {"amount_cents": 990, "description": "..."}; absent fields stay unchanged
+    private void update(ApiRequest request, int id) throws IOException {
+        Long amount = request.bodyLong("amount_cents");
+        String description = request.bodyString("description");
+        if (amount == null && description == null) {
+            throw ApiException.badRequest("Nothing to update: send 'amount_cents' and/or 'description'");
+        }
+        if (amount != null && amount <= 0) {
+            throw ApiException.badRequest("Field 'amount_cents' must be positive");
+        }
+
+        if (!financeService.updateTransaction(id, amount, description)) {
+            throw ApiException.notFound("Transaction " + id + " not found");
+        }
+        request.sendJson(200, Map.of("status", "updated"));
+    }
+
+    private void delete(ApiRequest request, int id) throws IOException {
+        if (!financeService.deleteTransaction(id)) {
+            throw ApiException.notFound("Transaction " + id + " not found");
+        }
+        request.sendEmpty(204);
+    }
+
+    // Only the user's own categories of the matching type may be referenced
+    private boolean isCategoryOf(String type, long categoryId) {
+        for (CategoryOption option : financeService.getCategoriesByType(type)) {
+            if (option.id() == categoryId) return true;
+        }
+        return false;
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw ApiException.notFound("No such resource");
+        }
+    }
+
+    private static Map<String, Object> toJson(TransactionView t) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", t.id());
+        json.put("date", t.date());
+        json.put("type", t.type());
+        json.put("amount_cents", t.amount());
+        json.put("description", t.description());
+        json.put("category", t.category());
+        return json;
+    }
+}
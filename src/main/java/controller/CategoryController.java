@@ -50,8 +50,9 @@ public class CategoryController {
         }
 
         try {
-            categoryService.addCategory(name, type);
-            System.out.println("Category added successfully!");
+            if (categoryService.addCategory(name, type)) {
+                System.out.println("Category added successfully!");
+            }
         } catch (IllegalArgumentException e) {
             System.out.println("Error: " + e.getMessage());
         }
@@ -1,5 +1,6 @@
 package controller;
 
+import entity.Money;
 import entity.Transaction;
 import service.TransactionService;
 import service.CategoryService;
@@ -28,7 +29,7 @@ public class TransactionController {
 
         System.out.print("Enter amount: ");
         try {
-            double amount = Double.parseDouble(scanner.nextLine());
+            long amount = Money.parse(scanner.nextLine());
 
             System.out.print("Enter date (YYYY-MM-DD) or press Enter for today: ");
             String dateInput = scanner.nextLine();
@@ -39,8 +40,9 @@ public class TransactionController {
 
             Long categoryId = categoryController.selectCategoryId(type);
 
-            transactionService.addTransaction(type, amount, date, description, categoryId);
-            System.out.println("Transaction added successfully!");
+            if (transactionService.addTransaction(type, amount, date, description, categoryId)) {
+                System.out.println("Transaction added successfully!");
+            }
         } catch (NumberFormatException e) {
             System.out.println("Invalid amount format.");
         } catch (DateTimeParseException e) {
@@ -63,10 +65,10 @@ public class TransactionController {
         System.out.println("-".repeat(80));
 
         for (Transaction t : transactions) {
-            System.out.printf("%-5d %-10s %-10.2f %-12s %-30s %d\n",
+            System.out.printf("%-5d %-10s %-10s %-12s %-30s %d\n",
                     t.getId(),
                     t.getType(),
-                    t.getAmount(),
+                    Money.format(t.getAmount()),
                     t.getDate(),
                     t.getDescription().length() > 30 ? t.getDescription().substring(0, 27) + "..." : t.getDescription(),
                     t.getCategoryId());
@@ -89,16 +91,16 @@ public class TransactionController {
                 return;
             }
 
-            double totalIncome = 0;
-            double totalExpense = 0;
+            long totalIncome = 0;
+            long totalExpense = 0;
 
             System.out.printf("%-10s %-10s %-12s %-30s\n", "Type", "Amount", "Date", "Description");
             System.out.println("-".repeat(62));
 
             for (Transaction t : transactions) {
-                System.out.printf("%-10s %-10.2f %-12s %-30s\n",
+                System.out.printf("%-10s %-10s %-12s %-30s\n",
                         t.getType(),
-                        t.getAmount(),
+                        Money.format(t.getAmount()),
                         t.getDate(),
                         t.getDescription().length() > 30 ? t.getDescription().substring(0, 27) + "..." : t.getDescription());
 
@@ -110,9 +112,9 @@ public class TransactionController {
             }
 
             System.out.println("\n=== Summary ===");
-            System.out.printf("Total Income: $%.2f\n", totalIncome);
-            System.out.printf("Total Expense: $%.2f\n", totalExpense);
-            System.out.printf("Balance: $%.2f\n", totalIncome - totalExpense);
+            System.out.println("Total Income: $" + Money.format(totalIncome));
+            System.out.println("Total Expense: $" + Money.format(totalExpense));
+            System.out.println("Balance: $" + Money.format(totalIncome - totalExpense));
 
             transactionService.analyzeExpenses(year, month);
 
@@ -123,9 +125,9 @@ public class TransactionController {
 
     public void showCurrentMonthBalance() {
         LocalDate now = LocalDate.now();
-        double balance = transactionService.getBalanceForMonth(now.getYear(), now.getMonthValue());
-        System.out.printf("Current month (%s) balance: $%.2f\n",
-                YearMonth.from(now), balance);
+        long balance = transactionService.getBalanceForMonth(now.getYear(), now.getMonthValue());
+        System.out.printf("Current month (%s) balance: $%s\n",
+                YearMonth.from(now), Money.format(balance));
     }
 
     public void showSavingsForecast() {
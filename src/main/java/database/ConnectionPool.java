@@ -0,0 +1,301 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of pre-opened, pre-configured JDBC connections.
+ * <p>
+ * {@link #borrow()} hands out a proxy whose {@code close()} returns the physical
+ * connection to the pool instead of closing it, so the try-with-resources blocks
+ * used throughout the repositories and services keep working unchanged.
+ * <p>
+ * Each physical connection also keeps a {@link StatementCache}, so the hot
+ * queries are compiled once per connection rather than on every call.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Snapshot of the statement cache counters across every connection of a pool. */
+    public record StatementCacheStats(long hits, long misses, long evictions) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    /** Applied once to every physical connection right after it is opened. */
+    @FunctionalInterface
+    public interface Customizer {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final String url;
+    private final Customizer customizer;
+    private final PoolSettings settings;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger opened = new AtomicInteger();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, Customizer customizer, PoolSettings settings) throws SQLException {
+        this.url = url;
+        this.customizer = customizer;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+
+        for (int i = 0; i < settings.minIdle(); i++) {
+            idle.offerLast(open());
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        if (settings.leakThresholdMillis() > 0) {
+            long period = Math.max(1_000, settings.leakThresholdMillis() / 2);
+            housekeeper.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after " + settings.borrowTimeoutMillis()
+                        + " ms waiting for a database connection (" + leases.size() + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeHealthyIdle();
+            if (entry == null) {
+                entry = open();
+            }
+
+            Lease lease = new Lease(entry);
+            leases.add(lease);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getOpenedCount() {
+        return opened.get();
+    }
+
+    public StatementCacheStats getStatementCacheStats() {
+        return new StatementCacheStats(statementCounters.hits.get(),
+                statementCounters.misses.get(), statementCounters.evictions.get());
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+        if (!leases.isEmpty()) {
+            System.err.println("⚠️ Connection pool closed with " + leases.size() + " connection(s) still borrowed");
+        }
+    }
+
+    private PooledEntry takeHealthyIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            long idleFor = System.currentTimeMillis() - entry.lastReturned;
+            if (idleFor < settings.validationIntervalMillis() || isHealthy(entry.physical)) {
+                return entry;
+            }
+            discard(entry);
+        }
+        return null;
+    }
+
+    private boolean isHealthy(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try {
+            customizer.apply(conn);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        opened.incrementAndGet();
+        StatementCache statements = settings.statementCacheSize() > 0
+                ? new StatementCache(conn, settings.statementCacheSize(), statementCounters)
+                : null;
+        return new PooledEntry(conn, statements);
+    }
+
+    private void release(Lease lease) {
+        leases.remove(lease);
+        PooledEntry entry = lease.entry;
+        try {
+            if (closed || entry.physical.isClosed() || idle.size() >= settings.maxIdle()) {
+                discard(entry);
+                return;
+            }
+            if (entry.statements != null) {
+                entry.statements.reclaim();
+            }
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.lastReturned = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            System.err.println("Discarding broken pooled connection: " + e.getMessage());
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        opened.decrementAndGet();
+        try {
+            if (entry.statements != null) {
+                entry.statements.clear();
+            }
+            entry.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases) {
+            if (!lease.reported && now - lease.borrowedAt > settings.leakThresholdMillis()) {
+                lease.reported = true;
+                System.err.println("⚠️ Possible connection leak: borrowed by " + lease.owner
+                        + " " + (now - lease.borrowedAt) + " ms ago at " + lease.borrowSite());
+            }
+        }
+    }
+
+    private static final class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastReturned = System.currentTimeMillis();
+
+        private PooledEntry(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    /** One borrow of a physical connection; acts as the invocation handler of the proxy handed out. */
+    private final class Lease implements InvocationHandler {
+        private final PooledEntry entry;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String owner = Thread.currentThread().getName();
+        // First caller outside the pool, so a leak report names the code that borrowed
+        private final StackWalker.StackFrame origin = settings.leakThresholdMillis() > 0
+                ? StackWalker.getInstance().walk(frames -> frames
+                        .filter(f -> !f.getClassName().startsWith(ConnectionPool.class.getName())
+                                && !f.getClassName().equals(DatabaseConnection.class.getName()))
+                        .findFirst().orElse(null))
+                : null;
+        private final AtomicBoolean returned = new AtomicBoolean(false);
+        private volatile boolean reported = false;
+
+        private Lease(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        private String borrowSite() {
+            return origin == null ? "unknown" : origin.toStackTraceElement().toString();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (returned.compareAndSet(false, true)) {
+                        release(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned.get() || entry.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + entry.physical + "]";
+                }
+                default -> {
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if (entry.statements != null && method.getName().equals("prepareStatement")) {
+                        return entry.statements.prepare(method, args);
+                    }
+                }
+            }
+
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package database;
 
+import repository.DataAccessException;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:sqlite:finance_manager.db";
-    private static Connection connection = null;
+    // Overridable so benchmarks and tools can point at a scratch database
+    private static final String URL = System.getProperty("cashier.db.url", "jdbc:sqlite:finance_manager.db");
+    private static final StorageProfile PROFILE = StorageProfile.defaults();
+
+    // SQLite allows a single writer at a time; serializing writes in-process
+    // keeps them from racing each other into SQLITE_BUSY.
+    private static final PoolSettings WRITER_SETTINGS = new PoolSettings(1, 1, 1, 5_000, 30_000, 60_000, 64);
+    private static final PoolSettings READER_SETTINGS = PoolSettings.defaults();
+
+    private static ConnectionPool writerPool = null;
+    private static ConnectionPool readerPool = null;
 
     static {
         try {
@@ -16,28 +26,79 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * Borrows the writer connection. Closing it (e.g. at the end of a
+     * try-with-resources block) hands it back to the pool.
+     *
+     * @throws DataAccessException if no connection could be opened or the pool
+     *         timed out; a timeout has a {@link java.sql.SQLTransientException} cause
+     */
     public static Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL);
-                connection.createStatement().execute("PRAGMA foreign_keys = ON");
-            }
+            return writerPool().borrow();
+        } catch (SQLException e) {
+            System.err.println("Failed to get write connection: " + e.getMessage());
+            throw new DataAccessException("No write connection available", e);
+        }
+    }
+
+    /**
+     * Borrows a read-only connection. With WAL enabled, readers see the last
+     * committed state and never block on, or get blocked by, the writer.
+     *
+     * @throws DataAccessException as {@link #getConnection()}
+     */
+    public static Connection getReadConnection() {
+        try {
+            return readerPool().borrow();
         } catch (SQLException e) {
-            System.err.println("Failed to connect to database: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Failed to get read connection: " + e.getMessage());
+            throw new DataAccessException("No read connection available", e);
+        }
+    }
+
+    /** Upper bound on read connections borrowed at once; sizes parallel readers. */
+    public static int getMaxReadConnections() {
+        return READER_SETTINGS.maxSize();
+    }
+
+    /** Prepared statement cache counters summed over the writer and reader pools. */
+    public static synchronized ConnectionPool.StatementCacheStats getStatementCacheStats() {
+        long hits = 0, misses = 0, evictions = 0;
+        for (ConnectionPool pool : new ConnectionPool[]{writerPool, readerPool}) {
+            if (pool == null) continue;
+            ConnectionPool.StatementCacheStats stats = pool.getStatementCacheStats();
+            hits += stats.hits();
+            misses += stats.misses();
+            evictions += stats.evictions();
+        }
+        return new ConnectionPool.StatementCacheStats(hits, misses, evictions);
+    }
+
+    public static synchronized void closeConnection() {
+        if (readerPool != null) {
+            readerPool.close();
+            readerPool = null;
+        }
+        if (writerPool != null) {
+            writerPool.close();
+            writerPool = null;
+        }
+    }
+
+    private static synchronized ConnectionPool writerPool() throws SQLException {
+        if (writerPool == null || writerPool.isClosed()) {
+            writerPool = new ConnectionPool(URL, PROFILE::applyToWriter, WRITER_SETTINGS);
         }
-        return connection;
+        return writerPool;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                if (!connection.isClosed()) {
-                    connection.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Failed to close connection: " + e.getMessage());
-            }
+    private static synchronized ConnectionPool readerPool() throws SQLException {
+        if (readerPool == null || readerPool.isClosed()) {
+            // The writer switches the file to WAL; open it first so readers attach in that mode.
+            writerPool();
+            readerPool = new ConnectionPool(URL, PROFILE::applyToReader, READER_SETTINGS);
         }
+        return readerPool;
     }
-}
\ No newline at end of file
+}
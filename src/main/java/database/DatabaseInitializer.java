@@ -1,80 +1,49 @@
 package database;
 
+import repository.DataAccessException;
+import security.PasswordHasher;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DatabaseInitializer {
-    public static void init() {
-        String[] createTables = {
-                """
-            CREATE TABLE IF NOT EXISTS users (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                username TEXT UNIQUE NOT NULL,
-                password TEXT NOT NULL,
-                email TEXT,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-            )
-            """,
-                """
-            CREATE TABLE IF NOT EXISTS categories (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                name TEXT NOT NULL,
-                type TEXT CHECK (type IN ('INCOME', 'EXPENSE')) NOT NULL,
-                user_id INTEGER NOT NULL,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                UNIQUE(name, user_id)
-            )
-            """,
-                """
-            CREATE TABLE IF NOT EXISTS transactions (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                type TEXT CHECK (type IN ('INCOME', 'EXPENSE')) NOT NULL,
-                amount REAL NOT NULL,
-                date TEXT NOT NULL DEFAULT CURRENT_DATE,
-                description TEXT,
-                category_id INTEGER,
-                user_id INTEGER NOT NULL,
-                FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
-            )
-            """,
-                """
-            CREATE TABLE IF NOT EXISTS goals (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                name TEXT NOT NULL,
-                target_amount REAL NOT NULL,
-                current_amount REAL DEFAULT 0,
-                target_date TEXT NOT NULL,
-                user_id INTEGER NOT NULL,
-                FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
-            )
-            """
-        };
 
+    /**
+     * Migrates the schema, creates the default admin on an empty database and
+     * runs the {@link QueryPlanCheck}. Any failure propagates: the application
+     * must not start on a half-migrated schema.
+     *
+     * @throws SQLException          if a migration or the setup fails
+     * @throws IllegalStateException if a hot query plan falls back to a full table scan
+     * @throws DataAccessException   if no write connection can be borrowed
+     */
+    public static void init() throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection()) {
-            if (conn == null) return;
+            MigrationRunner runner = new MigrationRunner(Migrations.all());
+            System.out.println("Migrating schema...");
+            int applied = runner.migrate(conn);
+            System.out.println("Schema at version " + runner.currentVersion(conn)
+                    + (applied > 0 ? " (" + applied + " migration(s) applied)" : ""));
 
             try (Statement stmt = conn.createStatement()) {
-                System.out.println("Creating tables...");
-                for (String sql : createTables) {
-                    stmt.execute(sql);
-                }
-
                 String checkUsers = "SELECT COUNT(*) FROM users";
                 ResultSet rs = stmt.executeQuery(checkUsers);
                 if (rs.next() && rs.getInt(1) == 0) {
-                    String addAdmin = "INSERT INTO users (username, password, email) VALUES ('admin', 'admin123', 'admin@example.com')";
-                    stmt.execute(addAdmin);
+                    String addAdmin = "INSERT INTO users (username, password, email) VALUES ('admin', ?, 'admin@example.com')";
+                    try (PreparedStatement pstmt = conn.prepareStatement(addAdmin)) {
+                        pstmt.setString(1, PasswordHasher.hashNow("admin123"));
+                        pstmt.executeUpdate();
+                    }
                     System.out.println("✅ Default admin user created (admin/admin123)");
                 }
+            }
 
-                System.out.println("✅ Database initialized successfully!");
+            new QueryPlanCheck().verify(conn);
 
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Database initialization failed!");
-            e.printStackTrace();
+            System.out.println("✅ Database initialized successfully!");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * One versioned schema change. Statements run in order inside a single
+ * transaction, followed by the optional {@link Step} for changes SQL cannot
+ * express, and the version is recorded in {@code schema_version}.
+ */
+public record Migration(int version, String description, List<String> statements, Step step) {
+
+    /** Data change written in Java; runs on the migration's connection and transaction. */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, List.of(statements), null);
+    }
+
+    public static Migration of(int version, String description, Step step) {
+        return new Migration(version, description, List.of(), step);
+    }
+}
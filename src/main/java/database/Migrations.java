@@ -0,0 +1,240 @@
+package database;
+
+import security.PasswordHasher;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The schema history, oldest first. Never edit a migration that has shipped;
+ * add a new version instead.
+ */
+public final class Migrations {
+
+    private Migrations() {}
+
+    public static List<Migration> all() {
+        return List.of(
+                Migration.of(1, "Base tables",
+                        """
+                    CREATE TABLE IF NOT EXISTS users (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        username TEXT UNIQUE NOT NULL,
+                        password TEXT NOT NULL,
+                        email TEXT,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """,
+                        """
+                    CREATE TABLE IF NOT EXISTS categories (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL,
+                        type TEXT CHECK (type IN ('INCOME', 'EXPENSE')) NOT NULL,
+                        user_id INTEGER NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        UNIQUE(name, user_id)
+                    )
+                    """,
+                        """
+                    CREATE TABLE IF NOT EXISTS transactions (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        type TEXT CHECK (type IN ('INCOME', 'EXPENSE')) NOT NULL,
+                        amount REAL NOT NULL,
+                        date TEXT NOT NULL DEFAULT CURRENT_DATE,
+                        description TEXT,
+                        category_id INTEGER,
+                        user_id INTEGER NOT NULL,
+                        FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                    )
+                    """,
+                        """
+                    CREATE TABLE IF NOT EXISTS goals (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL,
+                        target_amount REAL NOT NULL,
+                        current_amount REAL DEFAULT 0,
+                        target_date TEXT NOT NULL,
+                        user_id INTEGER NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                    )
+                    """),
+
+                Migration.of(2, "Indexes for per-user listings, totals and category lookups",
+                        // Listing: WHERE user_id = ? ORDER BY date DESC, and date-bounded summaries
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_date ON transactions (user_id, date DESC)",
+                        // Totals by type and period; amount is included so SUM() never touches the table
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_user_type_date ON transactions (user_id, type, date, amount)",
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_category ON transactions (category_id)",
+                        // TransactionRepository date-range queries are not yet scoped by user
+                        "CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions (date)",
+                        "CREATE INDEX IF NOT EXISTS idx_categories_user_type_name ON categories (user_id, type, name)",
+                        "CREATE INDEX IF NOT EXISTS idx_goals_user_target_date ON goals (user_id, target_date)",
+                        "ANALYZE"),
+
+                // SQLite cannot change a column's type in place, so the money tables are rebuilt.
+                Migration.of(3, "Store money as INTEGER cents",
+                        """
+                    CREATE TABLE transactions_new (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        type TEXT CHECK (type IN ('INCOME', 'EXPENSE')) NOT NULL,
+                        amount INTEGER NOT NULL,
+                        date TEXT NOT NULL DEFAULT CURRENT_DATE,
+                        description TEXT,
+                        category_id INTEGER,
+                        user_id INTEGER NOT NULL,
+                        FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                    )
+                    """,
+                        """
+                    INSERT INTO transactions_new (id, type, amount, date, description, category_id, user_id)
+                    SELECT id, type, CAST(ROUND(amount * 100) AS INTEGER), date, description, category_id, user_id
+                    FROM transactions
+                    """,
+                        "DROP TABLE transactions",
+                        "ALTER TABLE transactions_new RENAME TO transactions",
+                        "CREATE INDEX idx_transactions_user_date ON transactions (user_id, date DESC)",
+                        "CREATE INDEX idx_transactions_user_type_date ON transactions (user_id, type, date, amount)",
+                        // (category_id, date) also serves the ORDER BY date of per-category listings
+                        "CREATE INDEX idx_transactions_category ON transactions (category_id, date)",
+                        "CREATE INDEX idx_transactions_date ON transactions (date)",
+                        """
+                    CREATE TABLE goals_new (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL,
+                        target_amount INTEGER NOT NULL,
+                        current_amount INTEGER DEFAULT 0,
+                        target_date TEXT NOT NULL,
+                        user_id INTEGER NOT NULL,
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                    )
+                    """,
+                        """
+                    INSERT INTO goals_new (id, name, target_amount, current_amount, target_date, user_id)
+                    SELECT id, name, CAST(ROUND(target_amount * 100) AS INTEGER),
+                           CAST(ROUND(COALESCE(current_amount, 0) * 100) AS INTEGER), target_date, user_id
+                    FROM goals
+                    """,
+                        "DROP TABLE goals",
+                        "ALTER TABLE goals_new RENAME TO goals",
+                        "CREATE INDEX idx_goals_user_target_date ON goals (user_id, target_date)",
+                        "ANALYZE"),
+
+                // Keyset pagination orders by (date, id); with id in the index no sort step is needed
+                Migration.of(4, "Extend listing index with id for keyset pagination",
+                        "DROP INDEX IF EXISTS idx_transactions_user_date",
+                        "CREATE INDEX idx_transactions_user_date ON transactions (user_id, date DESC, id DESC)"),
+
+                // Per-month rollup for analytics, kept current by triggers so every write path
+                // (single inserts, batch import, edits, cascading deletes) updates it.
+                // Uncategorized rows are bucketed under category_id 0.
+                Migration.of(5, "Add monthly_totals rollup maintained by triggers",
+                        """
+                    CREATE TABLE monthly_totals (
+                        user_id INTEGER NOT NULL,
+                        month TEXT NOT NULL,
+                        type TEXT NOT NULL,
+                        category_id INTEGER NOT NULL,
+                        total INTEGER NOT NULL,
+                        count INTEGER NOT NULL,
+                        PRIMARY KEY (user_id, month, type, category_id)
+                    ) WITHOUT ROWID
+                    """,
+                        """
+                    INSERT INTO monthly_totals (user_id, month, type, category_id, total, count)
+                    SELECT user_id, substr(date, 1, 7), type, COALESCE(category_id, 0), SUM(amount), COUNT(*)
+                    FROM transactions
+                    GROUP BY 1, 2, 3, 4
+                    """,
+                        """
+                    CREATE TRIGGER trg_transactions_totals_insert AFTER INSERT ON transactions
+                    BEGIN
+                        INSERT INTO monthly_totals (user_id, month, type, category_id, total, count)
+                        VALUES (NEW.user_id, substr(NEW.date, 1, 7), NEW.type, COALESCE(NEW.category_id, 0), NEW.amount, 1)
+                        ON CONFLICT (user_id, month, type, category_id)
+                        DO UPDATE SET total = total + excluded.total, count = count + 1;
+                    END
+                    """,
+                        """
+                    CREATE TRIGGER trg_transactions_totals_delete AFTER DELETE ON transactions
+                    BEGIN
+                        UPDATE monthly_totals SET total = total - OLD.amount, count = count - 1
+                        WHERE user_id = OLD.user_id AND month = substr(OLD.date, 1, 7)
+                            AND type = OLD.type AND category_id = COALESCE(OLD.category_id, 0);
+                        DELETE FROM monthly_totals
+                        WHERE user_id = OLD.user_id AND month = substr(OLD.date, 1, 7)
+                            AND type = OLD.type AND category_id = COALESCE(OLD.category_id, 0) AND count <= 0;
+                    END
+                    """,
+                        """
+                    CREATE TRIGGER trg_transactions_totals_update
+                    AFTER UPDATE OF user_id, type, amount, date, category_id ON transactions
+                    BEGIN
+                        UPDATE monthly_totals SET total = total - OLD.amount, count = count - 1
+                        WHERE user_id = OLD.user_id AND month = substr(OLD.date, 1, 7)
+                            AND type = OLD.type AND category_id = COALESCE(OLD.category_id, 0);
+                        DELETE FROM monthly_totals
+                        WHERE user_id = OLD.user_id AND month = substr(OLD.date, 1, 7)
+                            AND type = OLD.type AND category_id = COALESCE(OLD.category_id, 0) AND count <= 0;
+                        INSERT INTO monthly_totals (user_id, month, type, category_id, total, count)
+                        VALUES (NEW.user_id, substr(NEW.date, 1, 7), NEW.type, COALESCE(NEW.category_id, 0), NEW.amount, 1)
+                        ON CONFLICT (user_id, month, type, category_id)
+                        DO UPDATE SET total = total + excluded.total, count = count + 1;
+                    END
+                    """),
+
+                // Highest journal sequence already inserted, per journal file. Updated in the
+                // same transaction as the rows, so replay after a crash never inserts twice.
+                Migration.of(6, "Track applied transaction journal sequence",
+                        """
+                    CREATE TABLE journal_state (
+                        journal_id INTEGER PRIMARY KEY,
+                        applied_sequence INTEGER NOT NULL
+                    )
+                    """),
+
+                // The column keeps its name; PasswordHasher.isHash tells hashes from plaintext
+                Migration.of(7, "Replace plaintext passwords with PBKDF2 hashes", Migrations::hashPlaintextPasswords),
+
+                // The repositories now filter every query by user_id, so the bare date index has
+                // no readers left. idx_transactions_category stays: ON DELETE SET NULL needs it.
+                Migration.of(8, "User-scoped index for per-category listings",
+                        "DROP INDEX IF EXISTS idx_transactions_date",
+                        "CREATE INDEX idx_transactions_user_category_date ON transactions (user_id, category_id, date DESC, id DESC)",
+                        "ANALYZE")
+        );
+    }
+
+    private static void hashPlaintextPasswords(Connection conn) throws SQLException {
+        Map<Integer, String> plaintext = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, password FROM users")) {
+            while (rs.next()) {
+                if (!PasswordHasher.isHash(rs.getString(2))) {
+                    plaintext.put(rs.getInt(1), rs.getString(2));
+                }
+            }
+        }
+
+        // Each hash takes ~100 ms of CPU, so they are computed on all cores
+        Map<Integer, String> hashed = plaintext.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> PasswordHasher.hashNow(e.getValue())));
+
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE users SET password = ? WHERE id = ?")) {
+            for (Map.Entry<Integer, String> entry : hashed.entrySet()) {
+                pstmt.setString(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+}
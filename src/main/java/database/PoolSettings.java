@@ -0,0 +1,37 @@
+package database;
+
+/**
+ * Sizing and timing knobs for {@link ConnectionPool}.
+ *
+ * @param minIdle                  connections opened eagerly when the pool starts
+ * @param maxIdle                  connections kept open after being returned; extras are closed
+ * @param maxSize                  hard cap on connections borrowed at the same time
+ * @param borrowTimeoutMillis      how long {@code borrow()} waits for a free slot
+ * @param leakThresholdMillis      a borrow held longer than this is reported as a leak; 0 disables
+ * @param validationIntervalMillis idle connections older than this are health-checked before reuse
+ * @param statementCacheSize       prepared statements kept open per connection; 0 disables the cache
+ */
+public record PoolSettings(int minIdle,
+                           int maxIdle,
+                           int maxSize,
+                           long borrowTimeoutMillis,
+                           long leakThresholdMillis,
+                           long validationIntervalMillis,
+                           int statementCacheSize) {
+
+    public PoolSettings {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        if (minIdle < 0 || minIdle > maxIdle || maxIdle > maxSize) {
+            throw new IllegalArgumentException("Expected 0 <= minIdle <= maxIdle <= maxSize");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative");
+        }
+    }
+
+    public static PoolSettings defaults() {
+        return new PoolSettings(2, 4, 8, 5_000, 30_000, 60_000, 64);
+    }
+}
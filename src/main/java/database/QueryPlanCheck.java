@@ -0,0 +1,101 @@
+package database;
+
+import analytics.ParallelReportEngine;
+import analytics.TransactionColumns;
+import repository.TransactionRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Startup guard: runs EXPLAIN QUERY PLAN over the hot queries, logs the plans
+ * and fails if any of them falls back to a full table scan.
+ */
+public class QueryPlanCheck {
+    private static final Pattern CONSTANT_ROWS = Pattern.compile("SCAN (\\d+ )?CONSTANT ROWS?");
+
+    private final Map<String, String> queries = new LinkedHashMap<>();
+
+    public QueryPlanCheck() {
+        queries.put("transaction listing", """
+            SELECT id, type, amount, date, description, category_id
+            FROM transactions
+            WHERE user_id = ?
+            ORDER BY date DESC, id DESC
+            LIMIT 51
+            """);
+        queries.put("transaction listing, next page", """
+            SELECT id, type, amount, date, description, category_id
+            FROM transactions
+            WHERE user_id = ? AND (date, id) < (?, ?)
+            ORDER BY date DESC, id DESC
+            LIMIT 51
+            """);
+        queries.put("monthly summary", """
+            SELECT month, SUM(total)
+            FROM monthly_totals
+            WHERE user_id = ? AND month >= strftime('%Y-%m', 'now', '-6 months')
+            GROUP BY month
+            """);
+        queries.put("expenses by category", """
+            SELECT category_id, SUM(total)
+            FROM monthly_totals
+            WHERE user_id = ? AND type = 'EXPENSE' AND month >= strftime('%Y-%m', 'now')
+            GROUP BY category_id
+            """);
+        queries.put("transactions by date range", TransactionRepository.BY_DATE_RANGE_SQL);
+        queries.put("transactions by category", TransactionRepository.BY_CATEGORY_SQL);
+        queries.put("columnar load", TransactionColumns.LOAD_SQL);
+        queries.put("columnar append", TransactionColumns.APPEND_SQL);
+        queries.put("columnar watermark", TransactionColumns.WATERMARK_SQL);
+        queries.put("report partition", ParallelReportEngine.PARTITION_SQL);
+        queries.put("totals by periods", TransactionRepository.totalsByPeriodsSql(1));
+        queries.put("category usage", "SELECT category_id, SUM(count) FROM monthly_totals WHERE user_id = ? GROUP BY category_id");
+        queries.put("category table", "SELECT id, name, type FROM categories WHERE user_id = ? ORDER BY id");
+        queries.put("categories by type", "SELECT * FROM categories WHERE user_id = ? AND type = ? ORDER BY name");
+    }
+
+    public void verify(Connection conn) throws SQLException {
+        List<String> scans = new ArrayList<>();
+
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + query.getValue())) {
+                int params = pstmt.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= params; i++) {
+                    pstmt.setNull(i, Types.NULL);
+                }
+
+                StringBuilder plan = new StringBuilder();
+                // Scanning a CTE or a VALUES list reads the query's own rows, not a table
+                Set<String> coroutines = new HashSet<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String detail = rs.getString("detail");
+                        plan.append("\n    ").append(detail);
+                        if (detail.startsWith("CO-ROUTINE ")) {
+                            coroutines.add(detail.substring("CO-ROUTINE ".length()).trim());
+                        } else if (detail.startsWith("SCAN ") && !CONSTANT_ROWS.matcher(detail).matches()
+                                && !coroutines.contains(detail.substring("SCAN ".length()).trim())) {
+                            scans.add(query.getKey() + ": " + detail);
+                        }
+                    }
+                }
+                System.out.println("🔎 Plan for " + query.getKey() + ":" + plan);
+            }
+        }
+
+        if (!scans.isEmpty()) {
+            throw new IllegalStateException("Hot queries fall back to full table scans: " + scans);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL
+ * text and statement options.
+ * <p>
+ * Callers get a proxy whose {@code close()} closes the statement's open result
+ * set, clears parameters and batch, and keeps the compiled statement for the
+ * next {@code prepareStatement} call with the same SQL. A pooled connection is
+ * only used by one thread at a time, so the cache needs no locking of its own.
+ */
+final class StatementCache {
+
+    /** Hit/miss/eviction counters shared by all caches of one pool. */
+    static final class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+    }
+
+    private final Connection physical;
+    private final Counters counters;
+    private final Map<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int capacity, Counters counters) {
+        this.physical = physical;
+        this.counters = counters;
+        this.statements = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= capacity) return false;
+                counters.evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /** Handles any {@code Connection.prepareStatement} overload. */
+    PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+        String key = args.length == 1
+                ? (String) args[0]
+                : args[0] + "\u0000" + Arrays.toString(Arrays.copyOfRange(args, 1, args.length));
+
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            counters.hits.incrementAndGet();
+            return cached.checkOut();
+        }
+
+        counters.misses.incrementAndGet();
+        PreparedStatement real = (PreparedStatement) invoke(method, physical, args);
+        if (cached != null) {
+            // The same SQL is already checked out (e.g. a nested query); hand out a plain statement.
+            return real;
+        }
+        cached = new CachedStatement(real);
+        statements.put(key, cached);
+        return cached.checkOut();
+    }
+
+    /**
+     * Checks in statements the borrower forgot to close, so they are reusable by
+     * the next lease of this connection. Called when the connection is returned.
+     */
+    void reclaim() throws SQLException {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.current.closed = true;
+                cached.checkIn();
+            }
+        }
+    }
+
+    void clear() {
+        for (CachedStatement cached : new ArrayList<>(statements.values())) {
+            cached.evict();
+        }
+        statements.clear();
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement real;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean inUse = false;
+        private boolean evicted = false;
+        private Checkout current;
+
+        private CachedStatement(PreparedStatement real) {
+            this.real = real;
+        }
+
+        private PreparedStatement checkOut() {
+            inUse = true;
+            current = new Checkout();
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    current);
+        }
+
+        private void checkIn() throws SQLException {
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                openResults.clear();
+                if (!real.isClosed()) {
+                    real.clearParameters();
+                    real.clearBatch();
+                }
+            } finally {
+                inUse = false;
+                current = null;
+                if (evicted) {
+                    real.close();
+                }
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    real.close();
+                } catch (SQLException e) {
+                    System.err.println("Failed to close cached statement: " + e.getMessage());
+                }
+            }
+        }
+
+        /** One logical use of the cached statement, from prepareStatement() to close(). */
+        private final class Checkout implements InvocationHandler {
+            private boolean closed = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!closed) {
+                            closed = true;
+                            checkIn();
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed || real.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "CachedStatement[" + real + "]";
+                    }
+                    default -> {
+                        if (closed) {
+                            throw new SQLException("Statement is closed");
+                        }
+                    }
+                }
+
+                Object result = StatementCache.invoke(method, real, args);
+                if (result instanceof ResultSet rs && !method.getName().equals("getGeneratedKeys")) {
+                    openResults.add(rs);
+                }
+                return result;
+            }
+        }
+    }
+}
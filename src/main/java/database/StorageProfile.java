@@ -0,0 +1,53 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SQLite pragmas applied to every connection when it is opened.
+ *
+ * @param journalMode       e.g. {@code WAL}; lets readers run while the writer commits
+ * @param synchronous       e.g. {@code NORMAL}; safe with WAL and avoids an fsync per commit
+ * @param mmapSizeBytes     size of the memory-mapped I/O window, 0 disables it
+ * @param cacheSizeKib      page cache per connection in KiB
+ * @param busyTimeoutMillis how long a connection retries on a locked database before SQLITE_BUSY
+ */
+public record StorageProfile(String journalMode,
+                             String synchronous,
+                             long mmapSizeBytes,
+                             int cacheSizeKib,
+                             int busyTimeoutMillis) {
+
+    public static StorageProfile defaults() {
+        return new StorageProfile("WAL", "NORMAL", 256L * 1024 * 1024, 16 * 1024, 5_000);
+    }
+
+    /**
+     * Configures a writer connection. The journal mode is persistent in the
+     * database file, so only the writer switches it.
+     */
+    public void applyToWriter(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            stmt.execute("PRAGMA journal_mode = " + journalMode);
+            applyCommon(stmt);
+        }
+    }
+
+    /** Configures a reader connection and makes it reject writes. */
+    public void applyToReader(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            applyCommon(stmt);
+            stmt.execute("PRAGMA query_only = ON");
+        }
+    }
+
+    private void applyCommon(Statement stmt) throws SQLException {
+        stmt.execute("PRAGMA foreign_keys = ON");
+        stmt.execute("PRAGMA synchronous = " + synchronous);
+        stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+        stmt.execute("PRAGMA cache_size = -" + cacheSizeKib);
+    }
+}
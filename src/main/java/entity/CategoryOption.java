@@ -0,0 +1,4 @@
+package entity;
+
+/** Id and name of a category, for pick lists. */
+public record CategoryOption(int id, String name) {}
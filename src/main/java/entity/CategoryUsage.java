@@ -0,0 +1,4 @@
+package entity;
+
+/** Category with the number of the user's transactions that reference it. */
+public record CategoryUsage(int id, String name, String type, int usageCount) {}
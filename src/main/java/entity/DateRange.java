@@ -0,0 +1,26 @@
+package entity;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Inclusive date range used for aggregate queries.
+ *
+ * @param start first day of the range
+ * @param end   last day of the range
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+    // Bounds stay four-digit years so they compare correctly as ISO date strings
+    public static final DateRange ALL_TIME = new DateRange(LocalDate.of(0, 1, 1), LocalDate.of(9999, 12, 31));
+
+    public DateRange {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + start + ".." + end);
+        }
+    }
+
+    public static DateRange ofMonth(int year, int month) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return new DateRange(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+    }
+}
@@ -0,0 +1,13 @@
+package entity;
+
+/**
+ * Savings goal as listed to the user; amounts are in cents.
+ *
+ * @param targetDate ISO-8601 date as stored in the database
+ */
+public record GoalView(int id, String name, long targetAmount, long currentAmount, String targetDate) {
+
+    public double progressPercent() {
+        return targetAmount > 0 ? ((double) currentAmount / targetAmount) * 100 : 0;
+    }
+}
@@ -0,0 +1,48 @@
+package entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is stored and summed as a primitive {@code long} number of cents;
+ * these helpers convert at the edges (user input, display, reports).
+ */
+public final class Money {
+
+    private Money() {}
+
+    /** Parses "12", "12.5" or "12.345" (rounded half-up) into cents. */
+    public static long parse(String text) {
+        try {
+            return new BigDecimal(text.trim())
+                    .setScale(2, RoundingMode.HALF_UP)
+                    .movePointRight(2)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    /** Formats cents as "-1234.05" without going through floating point. */
+    public static String format(long cents) {
+        StringBuilder sb = new StringBuilder(16);
+        return appendTo(sb, cents).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        sb.append(abs / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+}
@@ -0,0 +1,25 @@
+package entity;
+
+/**
+ * Aggregates of one {@link DateRange}. All amounts are cents, see {@link Money}.
+ *
+ * @param count number of transactions of either type
+ * @param min   smallest single transaction, 0 if there are none
+ * @param max   largest single transaction, 0 if there are none
+ */
+public record PeriodTotals(DateRange period, long income, long expense, long count, long min, long max) {
+
+    public long balance() {
+        return income - expense;
+    }
+
+    /** Share of income left after expenses, in percent; 0 without income. */
+    public double savingsRate() {
+        return income > 0 ? (double) balance() / income * 100 : 0;
+    }
+
+    /** Expenses as a percentage of income; 0 without income. */
+    public double expenseRatio() {
+        return income > 0 ? (double) expense / income * 100 : 0;
+    }
+}
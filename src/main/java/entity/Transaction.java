@@ -5,14 +5,14 @@ import java.time.LocalDate;
 public class Transaction {
     private Long id;
     private String type; // "INCOME" или "EXPENSE"
-    private Double amount;
+    private long amount; // в центах, см. Money
     private LocalDate date;
     private String description;
     private Long categoryId;
 
     public Transaction() {}
 
-    public Transaction(Long id, String type, Double amount, LocalDate date, String description, Long categoryId) {
+    public Transaction(Long id, String type, long amount, LocalDate date, String description, Long categoryId) {
         this.id = id;
         this.type = type;
         this.amount = amount;
@@ -28,8 +28,8 @@ public class Transaction {
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
 
-    public Double getAmount() { return amount; }
-    public void setAmount(Double amount) { this.amount = amount; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
 
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
@@ -45,7 +45,7 @@ public class Transaction {
         return "Transaction{" +
                 "id=" + id +
                 ", type='" + type + '\'' +
-                ", amount=" + amount +
+                ", amount=" + Money.format(amount) +
                 ", date=" + date +
                 ", description='" + description + '\'' +
                 ", categoryId=" + categoryId +
@@ -0,0 +1,20 @@
+package entity;
+
+/**
+ * Row of a transaction listing, joined with its category name.
+ *
+ * @param amount   cents, see {@link Money}
+ * @param date     ISO-8601 date as stored in the database
+ * @param category category name, or {@code null} if uncategorized
+ */
+public record TransactionView(int id,
+                              String type,
+                              long amount,
+                              String date,
+                              String description,
+                              String category) {
+
+    public boolean isIncome() {
+        return "INCOME".equals(type);
+    }
+}
@@ -0,0 +1,155 @@
+package export;
+
+import analytics.TransactionColumns;
+import entity.TransactionView;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary export that stores each column contiguously.
+ * <p>
+ * Layout, all integers as unsigned LEB128 varints:
+ * <pre>
+ * file   := "CSHC" version:u8 user:string columnCount (name:string encoding:u8)* group* 0
+ * group  := rowCount (blockLength block)*    -- one block per column, in schema order
+ * </pre>
+ * Rows are buffered into groups of {@link #ROW_GROUP_SIZE}. Ids and dates are
+ * zig-zag deltas from the previous row of the group, amounts are zig-zag
+ * cents, the type is one byte (0 income, 1 expense) and category names are
+ * dictionary-encoded per group. Every group decodes on its own and readers can
+ * skip a column by its block length. See {@link ColumnarReader}.
+ */
+public final class ColumnarExporter implements TransactionExporter {
+    public static final int ROW_GROUP_SIZE = 8_192;
+
+    static final byte[] MAGIC = {'C', 'S', 'H', 'C'};
+    static final int VERSION = 1;
+
+    static final int DELTA = 1;
+    static final int TYPE_BYTE = 2;
+    static final int ZIGZAG = 3;
+    static final int STRING = 4;
+    static final int DICTIONARY = 5;
+
+    static final String[] COLUMN_NAMES = {"id", "date", "type", "amount_cents", "description", "category"};
+    static final int[] COLUMN_ENCODINGS = {DELTA, DELTA, TYPE_BYTE, ZIGZAG, STRING, DICTIONARY};
+
+    private final WritableByteChannel out;
+    private final ByteSink frame = new ByteSink(64 * 1024);
+    private final ByteSink ids = new ByteSink(ROW_GROUP_SIZE * 2);
+    private final ByteSink dates = new ByteSink(ROW_GROUP_SIZE);
+    private final ByteSink types = new ByteSink(ROW_GROUP_SIZE);
+    private final ByteSink amounts = new ByteSink(ROW_GROUP_SIZE * 3);
+    private final ByteSink descriptions = new ByteSink(ROW_GROUP_SIZE * 16);
+    private final ByteSink categories = new ByteSink(ROW_GROUP_SIZE);
+    private final ByteSink dictionaryBlock = new ByteSink(1024);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private String[] dictionaryOrder = new String[16];
+
+    private int rows = 0;
+    private long previousId = 0;
+    private long previousDay = 0;
+
+    public ColumnarExporter(WritableByteChannel out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String username) throws IOException {
+        frame.reset();
+        for (byte b : MAGIC) frame.writeByte(b);
+        frame.writeByte(VERSION);
+        frame.writeString(username);
+        frame.writeVarLong(COLUMN_NAMES.length);
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            frame.writeString(COLUMN_NAMES[i]);
+            frame.writeByte(COLUMN_ENCODINGS[i]);
+        }
+        frame.writeTo(out);
+    }
+
+    @Override
+    public void write(TransactionView t) throws IOException {
+        long day = TransactionColumns.parseEpochDay(t.date());
+        ids.writeZigZag(t.id() - previousId);
+        dates.writeZigZag(day - previousDay);
+        previousId = t.id();
+        previousDay = day;
+
+        types.writeByte(typeCode(t.type()));
+        amounts.writeZigZag(t.amount());
+        descriptions.writeString(t.description());
+        // Index + 1 into the group's dictionary, 0 for uncategorized
+        categories.writeVarLong(t.category() == null ? 0 : dictionaryIndex(t.category()) + 1);
+
+        if (++rows == ROW_GROUP_SIZE) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) flushGroup();
+        frame.reset();
+        frame.writeVarLong(0);
+        frame.writeTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void flushGroup() throws IOException {
+        dictionaryBlock.reset();
+        dictionaryBlock.writeVarLong(dictionary.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            dictionaryBlock.writeString(dictionaryOrder[i]);
+        }
+
+        frame.reset();
+        frame.writeVarLong(rows);
+        frame.writeBlock(ids);
+        frame.writeBlock(dates);
+        frame.writeBlock(types);
+        frame.writeBlock(amounts);
+        frame.writeBlock(descriptions);
+        // Dictionary and indexes travel in one block so the column can be skipped as a whole
+        dictionaryBlock.writeBlock(categories);
+        frame.writeBlock(dictionaryBlock);
+        frame.writeTo(out);
+
+        for (ByteSink column : new ByteSink[]{ids, dates, types, amounts, descriptions, categories}) {
+            column.reset();
+        }
+        dictionary.clear();
+        rows = 0;
+        previousId = 0;
+        previousDay = 0;
+    }
+
+    private int dictionaryIndex(String category) {
+        Integer index = dictionary.get(category);
+        if (index != null) return index;
+
+        int next = dictionary.size();
+        if (next == dictionaryOrder.length) {
+            dictionaryOrder = Arrays.copyOf(dictionaryOrder, next * 2);
+        }
+        dictionaryOrder[next] = category;
+        dictionary.put(category, next);
+        return next;
+    }
+
+    private static int typeCode(String type) throws IOException {
+        return switch (type) {
+            case "INCOME" -> 0;
+            case "EXPENSE" -> 1;
+            default -> throw new IOException("Unknown transaction type: " + type);
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package export;
+
+import entity.TransactionView;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Pull-based reader for files written by {@link ColumnarExporter}. Decodes one
+ * row group at a time, so memory stays bounded by the group size.
+ */
+public final class ColumnarReader implements AutoCloseable {
+    private final DataInputStream in;
+    private final String username;
+
+    private int groupRows = 0;
+    private int position = 0;
+    private boolean finished = false;
+    private int[] ids = new int[0];
+    private String[] dates = new String[0];
+    private String[] types = new String[0];
+    private long[] amounts = new long[0];
+    private String[] descriptions = new String[0];
+    private String[] categories = new String[0];
+
+    public ColumnarReader(InputStream input) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        byte[] magic = new byte[ColumnarExporter.MAGIC.length];
+        in.readFully(magic);
+        for (int i = 0; i < magic.length; i++) {
+            if (magic[i] != ColumnarExporter.MAGIC[i]) throw new IOException("Not a columnar export");
+        }
+        int version = in.readUnsignedByte();
+        if (version != ColumnarExporter.VERSION) {
+            throw new IOException("Unsupported columnar export version " + version);
+        }
+        this.username = readString(in);
+
+        int columns = (int) readVarLong(in);
+        if (columns != ColumnarExporter.COLUMN_NAMES.length) {
+            throw new IOException("Unexpected column count " + columns);
+        }
+        for (int i = 0; i < columns; i++) {
+            String name = readString(in);
+            int encoding = in.readUnsignedByte();
+            if (!ColumnarExporter.COLUMN_NAMES[i].equals(name) || ColumnarExporter.COLUMN_ENCODINGS[i] != encoding) {
+                throw new IOException("Unexpected column " + name);
+            }
+        }
+    }
+
+    /** Opens a file, decompressing it first if it is gzip. */
+    public static ColumnarReader open(Path file) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(file));
+        input.mark(2);
+        boolean gzip = input.read() == 0x1f && input.read() == 0x8b;
+        input.reset();
+        return new ColumnarReader(gzip ? new GZIPInputStream(input, 64 * 1024) : input);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /** @return the next row, or {@code null} after the last one */
+    public TransactionView next() throws IOException {
+        if (position == groupRows) {
+            if (finished || !readGroup()) return null;
+        }
+        int i = position++;
+        return new TransactionView(ids[i], types[i], amounts[i], dates[i], descriptions[i], categories[i]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readGroup() throws IOException {
+        int rows = (int) readVarLong(in);
+        if (rows == 0) {
+            finished = true;
+            return false;
+        }
+        if (ids.length < rows) {
+            ids = new int[rows];
+            dates = new String[rows];
+            types = new String[rows];
+            amounts = new long[rows];
+            descriptions = new String[rows];
+            categories = new String[rows];
+        }
+
+        DataInputStream block = block();
+        long id = 0;
+        for (int i = 0; i < rows; i++) {
+            id += readZigZag(block);
+            ids[i] = (int) id;
+        }
+        block = block();
+        long day = 0;
+        String date = null;
+        for (int i = 0; i < rows; i++) {
+            long delta = readZigZag(block);
+            // Rows are in date order, so most deltas are 0 and reuse the previous string
+            if (delta != 0 || date == null) date = LocalDate.ofEpochDay(day += delta).toString();
+            dates[i] = date;
+        }
+        block = block();
+        for (int i = 0; i < rows; i++) {
+            types[i] = block.readUnsignedByte() == 0 ? "INCOME" : "EXPENSE";
+        }
+        block = block();
+        for (int i = 0; i < rows; i++) {
+            amounts[i] = readZigZag(block);
+        }
+        block = block();
+        for (int i = 0; i < rows; i++) {
+            descriptions[i] = readString(block);
+        }
+        block = block();
+        String[] dictionary = new String[(int) readVarLong(block)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(block);
+        }
+        readVarLong(block); // length of the index run
+        for (int i = 0; i < rows; i++) {
+            int index = (int) readVarLong(block);
+            categories[i] = index == 0 ? null : dictionary[index - 1];
+        }
+
+        groupRows = rows;
+        position = 0;
+        return true;
+    }
+
+    private DataInputStream block() throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long readZigZag(DataInputStream in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) return null;
+        byte[] utf8 = new byte[(int) (length - 1)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
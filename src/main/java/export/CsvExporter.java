@@ -0,0 +1,68 @@
+package export;
+
+import entity.TransactionView;
+
+import java.io.IOException;
+
+/**
+ * RFC 4180 CSV with a header row. Amounts are positive decimals and the
+ * {@code type} column carries the sign, so the file can be imported again
+ * with the default CSV statement columns.
+ */
+public final class CsvExporter implements TransactionExporter {
+    private final TextChannelWriter out;
+
+    public CsvExporter(TextChannelWriter out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String username) throws IOException {
+        out.append("id,date,type,amount,description,category\r\n");
+    }
+
+    @Override
+    public void write(TransactionView t) throws IOException {
+        out.append(t.id()).append(',')
+                .append(t.date()).append(',')
+                .append(t.type()).append(',')
+                .appendMoney(t.amount()).append(',');
+        appendField(t.description());
+        out.append(',');
+        appendField(t.category());
+        out.append("\r\n");
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // null and empty are both written as an empty field
+    private void appendField(String value) throws IOException {
+        if (value == null) return;
+        if (!needsQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package export;
+
+import java.nio.channels.WritableByteChannel;
+
+public enum ExportFormat {
+    TEXT("txt"), CSV("csv"), JSON_LINES("jsonl"), COLUMNAR("cshc");
+
+    public static final String GZIP_SUFFIX = ".gz";
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /** Format by file extension; a trailing {@code .gz} is ignored. */
+    public static ExportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(GZIP_SUFFIX)) {
+            lower = lower.substring(0, lower.length() - GZIP_SUFFIX.length());
+        }
+        for (ExportFormat format : values()) {
+            if (lower.endsWith("." + format.extension)) return format;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + fileName);
+    }
+
+    public static boolean isCompressed(String fileName) {
+        return fileName.toLowerCase().endsWith(GZIP_SUFFIX);
+    }
+
+    /** The exporter owns {@code out} and closes it. */
+    public TransactionExporter open(WritableByteChannel out) {
+        return switch (this) {
+            case TEXT -> new TextReportExporter(new TextChannelWriter(out));
+            case CSV -> new CsvExporter(new TextChannelWriter(out));
+            case JSON_LINES -> new JsonLinesExporter(new TextChannelWriter(out));
+            case COLUMNAR -> new ColumnarExporter(out);
+        };
+    }
+}
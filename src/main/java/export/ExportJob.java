@@ -0,0 +1,91 @@
+package export;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handle to an export running in the background: progress, cancellation and
+ * the final {@link Result}.
+ * <p>
+ * The export task calls {@link #rowWritten()} per row and checks
+ * {@link #isCancelled()}. It stops at the next row once {@link #cancel()} is
+ * called and leaves no partial file behind.
+ */
+public final class ExportJob {
+
+    public record Result(long rows, long bytes, long elapsedMillis, boolean cancelled) {}
+
+    private final long totalRows;
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile boolean cancelled = false;
+    private volatile Future<Result> future;
+
+    /** @param totalRows expected row count for progress, or -1 if unknown */
+    public ExportJob(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    /** Called once by the service after submitting the task. */
+    public void attach(Future<Result> future) {
+        this.future = future;
+    }
+
+    public void rowWritten() {
+        rowsWritten.incrementAndGet();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    /** Progress in percent, or -1 if the total is unknown. */
+    public int getPercentDone() {
+        if (totalRows < 0) return -1;
+        if (totalRows == 0) return isDone() ? 100 : 0;
+        return (int) Math.min(100, rowsWritten.get() * 100 / totalRows);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return future != null && future.isDone();
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for the export to finish.
+     *
+     * @return the result, or {@code null} if it is still running
+     * @throws ExecutionException if the export failed
+     */
+    public Result await(long timeoutMillis) throws ExecutionException, InterruptedException {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (CancellationException e) {
+            return new Result(rowsWritten.get(), 0, 0, true);
+        }
+    }
+
+    public Result await() throws ExecutionException, InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            return new Result(rowsWritten.get(), 0, 0, true);
+        }
+    }
+}
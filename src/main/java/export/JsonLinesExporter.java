@@ -0,0 +1,73 @@
+package export;
+
+import entity.TransactionView;
+
+import java.io.IOException;
+
+/**
+ * One JSON object per line. Amounts are integer cents ({@code amount_cents})
+ * so consumers never see a binary floating-point value.
+ */
+public final class JsonLinesExporter implements TransactionExporter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final TextChannelWriter out;
+
+    public JsonLinesExporter(TextChannelWriter out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String username) {
+    }
+
+    @Override
+    public void write(TransactionView t) throws IOException {
+        out.append("{\"id\":").append(t.id())
+                .append(",\"date\":");
+        appendString(t.date());
+        out.append(",\"type\":");
+        appendString(t.type());
+        out.append(",\"amount_cents\":").append(t.amount())
+                .append(",\"description\":");
+        appendString(t.description());
+        out.append(",\"category\":");
+        appendString(t.category());
+        out.append("}\n");
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void appendString(String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
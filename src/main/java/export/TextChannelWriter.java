@@ -0,0 +1,161 @@
+package export;
+
+import entity.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered UTF-8 text output to a {@link FileChannel} or any other
+ * {@link WritableByteChannel}.
+ * <p>
+ * Text is staged in a {@link StringBuilder}, encoded in chunks into a 64 KB
+ * direct buffer and written with one channel call per full buffer. Numbers,
+ * money and padding are appended directly instead of through
+ * {@code String.format}, so no format string is parsed and no intermediate
+ * string is built per row.
+ */
+public final class TextChannelWriter implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int DRAIN_CHARS = 8 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder pending = new StringBuilder(DRAIN_CHARS * 2);
+    private long bytesWritten = 0;
+    private boolean closed = false;
+
+    public TextChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public static TextChannelWriter create(Path file) throws IOException {
+        return new TextChannelWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    public TextChannelWriter append(CharSequence text) throws IOException {
+        pending.append(text);
+        return drainIfFull();
+    }
+
+    public TextChannelWriter append(char c) throws IOException {
+        pending.append(c);
+        return drainIfFull();
+    }
+
+    public TextChannelWriter append(long value) throws IOException {
+        pending.append(value);
+        return drainIfFull();
+    }
+
+    /** Appends {@code text} (empty for null), padded with spaces to at least {@code width} chars. */
+    public TextChannelWriter append(CharSequence text, int width) throws IOException {
+        int start = pending.length();
+        if (text != null) pending.append(text);
+        return pad(start, width);
+    }
+
+    public TextChannelWriter append(long value, int width) throws IOException {
+        int start = pending.length();
+        pending.append(value);
+        return pad(start, width);
+    }
+
+    /** Appends cents as {@code 1234.56}, see {@link Money#appendTo}. */
+    public TextChannelWriter appendMoney(long cents) throws IOException {
+        Money.appendTo(pending, cents);
+        return drainIfFull();
+    }
+
+    public TextChannelWriter appendMoney(long cents, int width) throws IOException {
+        int start = pending.length();
+        Money.appendTo(pending, cents);
+        return pad(start, width);
+    }
+
+    /** Appends a percentage rounded to one decimal, e.g. {@code 12.5}. */
+    public TextChannelWriter appendPercent(double percent) throws IOException {
+        long tenths = Math.round(percent * 10);
+        if (tenths < 0) {
+            pending.append('-');
+            tenths = -tenths;
+        }
+        pending.append(tenths / 10).append('.').append(tenths % 10);
+        return drainIfFull();
+    }
+
+    public TextChannelWriter repeat(char c, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            pending.append(c);
+        }
+        return drainIfFull();
+    }
+
+    public TextChannelWriter newLine() throws IOException {
+        return append('\n');
+    }
+
+    /** Bytes handed to the channel so far; excludes text still buffered. */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            drain();
+            encoder.encode(CharBuffer.allocate(0), buffer, true);
+            encoder.flush(buffer);
+            writeBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private TextChannelWriter pad(int start, int width) throws IOException {
+        for (int i = pending.length() - start; i < width; i++) {
+            pending.append(' ');
+        }
+        return drainIfFull();
+    }
+
+    private TextChannelWriter drainIfFull() throws IOException {
+        if (pending.length() >= DRAIN_CHARS) {
+            drain();
+        }
+        return this;
+    }
+
+    private void drain() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(pending);
+        while (encoder.encode(chars, buffer, false) == CoderResult.OVERFLOW) {
+            writeBuffer();
+        }
+        // A trailing high surrogate stays behind until its pair arrives
+        pending.delete(0, chars.position());
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package export;
+
+import entity.TransactionView;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/** Fixed-width transaction listing for people, with income and expense totals at the end. */
+public final class TextReportExporter implements TransactionExporter {
+    private static final DateTimeFormatter GENERATED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final TextChannelWriter out;
+    private long totalIncome = 0;
+    private long totalExpense = 0;
+
+    public TextReportExporter(TextChannelWriter out) {
+        this.out = out;
+    }
+
+    /** Banner shared by the text exports: title, user and generation time. */
+    public static void writeHeader(TextChannelWriter out, String title, String username) throws IOException {
+        out.repeat('=', 60).newLine();
+        out.append(title).newLine();
+        out.append("User: ").append(username).newLine();
+        out.repeat('=', 60).newLine();
+        out.append("Generated: ").append(LocalDateTime.now().format(GENERATED_FORMAT)).append("\n\n");
+    }
+
+    @Override
+    public void begin(String username) throws IOException {
+        writeHeader(out, "          FINANCIAL TRANSACTIONS REPORT", username);
+
+        // Таблица
+        out.append("ID", 6).append(' ').append("Type", 10).append(' ').append("Amount", 12).append(' ')
+                .append("Date", 15).append(' ').append("Description", 30).append(' ').append("Category").newLine();
+        out.repeat('-', 80).newLine();
+    }
+
+    @Override
+    public void write(TransactionView t) throws IOException {
+        if (t.isIncome()) totalIncome += t.amount();
+        else totalExpense += t.amount();
+
+        out.append(t.id(), 6).append(' ')
+                .append(t.type(), 10).append(' ')
+                .append('$').appendMoney(t.amount(), 11).append(' ')
+                .append(t.date(), 15).append(' ');
+        appendTruncated(t.description(), 28, 30);
+        out.append(' ').append(t.category() != null ? t.category() : "-").newLine();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        // Итоги
+        out.newLine().repeat('=', 60).newLine();
+        out.append("SUMMARY:\n");
+        out.append("Total Income:  $").appendMoney(totalIncome).newLine();
+        out.append("Total Expense: $").appendMoney(totalExpense).newLine();
+        out.append("Net Balance:   $").appendMoney(totalIncome - totalExpense).newLine();
+        out.repeat('=', 60).newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void appendTruncated(String text, int length, int width) throws IOException {
+        if (text != null && text.length() > length) {
+            out.append(text.subSequence(0, length - 3)).append("...");
+            out.repeat(' ', width - length);
+        } else {
+            out.append(text, width);
+        }
+    }
+}
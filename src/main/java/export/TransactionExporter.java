@@ -0,0 +1,26 @@
+package export;
+
+import entity.TransactionView;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming writer for one export format.
+ * <p>
+ * The caller invokes {@link #begin} once, {@link #write} for every row in
+ * listing order and {@link #finish} after the last row. Implementations keep
+ * at most a bounded batch of rows in memory. Closing without {@code finish}
+ * releases the output but leaves the file incomplete.
+ */
+public interface TransactionExporter extends Closeable {
+
+    void begin(String username) throws IOException;
+
+    void write(TransactionView transaction) throws IOException;
+
+    void finish() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,42 @@
+package importer;
+
+import database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive (type, category name) → id map for one user, loaded once
+ * per import so that statement rows never hit the database to resolve
+ * categories. The type is part of the key because a transaction may only use
+ * a category of its own type.
+ */
+public class CategoryLookup {
+    private record Key(String type, String name) {}
+
+    private final Map<Key, Long> ids = new HashMap<>();
+
+    public CategoryLookup(int userId) throws SQLException {
+        String sql = "SELECT id, type, name FROM categories WHERE user_id = ?";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ids.put(new Key(rs.getString("type"), rs.getString("name").toLowerCase(Locale.ROOT)), rs.getLong("id"));
+            }
+        }
+    }
+
+    /** @return the id of the {@code type} category, or {@code null} for a blank or unknown name */
+    public Long resolve(String type, String name) {
+        if (name == null) return null;
+        return ids.get(new Key(type, name.trim().toLowerCase(Locale.ROOT)));
+    }
+}
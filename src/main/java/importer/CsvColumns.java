@@ -0,0 +1,51 @@
+package importer;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Maps CSV columns to transaction fields. Column indexes are zero-based;
+ * -1 marks a column the file does not have.
+ */
+public record CsvColumns(int date,
+                         int amount,
+                         int description,
+                         int category,
+                         int type,
+                         DateTimeFormatter dateFormat,
+                         char delimiter,
+                         boolean header) {
+
+    /** {@code date,amount,description,category} with a header row and ISO dates. */
+    public static CsvColumns defaults() {
+        return new CsvColumns(0, 1, 2, 3, -1, DateTimeFormatter.ISO_LOCAL_DATE, ',', true);
+    }
+
+    /**
+     * Re-maps columns by header names where they are recognised, keeping the
+     * current index for any field whose header is not found.
+     */
+    public CsvColumns detect(List<String> headerRow) {
+        int date = this.date, amount = this.amount, description = this.description;
+        int category = this.category, type = this.type;
+        boolean descriptionFound = false;
+
+        for (int i = 0; i < headerRow.size(); i++) {
+            switch (headerRow.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "date", "posted", "posting date", "transaction date" -> date = i;
+                case "amount", "sum", "value" -> amount = i;
+                case "description", "memo", "payee", "details" -> {
+                    if (!descriptionFound) {
+                        description = i;
+                        descriptionFound = true;
+                    }
+                }
+                case "category" -> category = i;
+                case "type" -> type = i;
+                default -> { }
+            }
+        }
+        return new CsvColumns(date, amount, description, category, type, dateFormat, delimiter, header);
+    }
+}
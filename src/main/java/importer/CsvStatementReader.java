@@ -0,0 +1,147 @@
+package importer;
+
+import entity.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 style CSV reader: quoted fields, doubled quotes and quoted line
+ * breaks are supported. The field list and buffer are reused between records.
+ */
+public class CsvStatementReader implements StatementReader {
+    private final BufferedReader in;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private CsvColumns columns;
+    private boolean started = false;
+    private long lineNumber = 0;
+
+    public CsvStatementReader(BufferedReader in, CsvColumns columns) {
+        this.in = in;
+        this.columns = columns;
+    }
+
+    @Override
+    public StatementLine next() throws IOException, StatementParseException {
+        if (!started) {
+            started = true;
+            if (columns.header()) {
+                if (readRecord() < 0) return null;
+                columns = columns.detect(fields);
+            }
+        }
+
+        while (true) {
+            long recordNumber = readRecord();
+            if (recordNumber < 0) return null;
+            if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+            return map(recordNumber);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private StatementLine map(long recordNumber) throws StatementParseException {
+        String dateText = field(columns.date(), recordNumber, "date");
+        String amountText = field(columns.amount(), recordNumber, "amount");
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(dateText.trim(), columns.dateFormat());
+        } catch (DateTimeParseException e) {
+            throw new StatementParseException(recordNumber, "invalid date '" + dateText + "'");
+        }
+
+        long amount;
+        try {
+            amount = Money.parse(amountText.replace(" ", "").replace("$", ""));
+        } catch (NumberFormatException e) {
+            throw new StatementParseException(recordNumber, "invalid amount '" + amountText + "'");
+        }
+
+        String type = null;
+        if (columns.type() >= 0 && columns.type() < fields.size()) {
+            type = normalizeType(fields.get(columns.type()), recordNumber);
+        }
+
+        return new StatementLine(recordNumber, date, amount, type,
+                optional(columns.description()), optional(columns.category()));
+    }
+
+    private String field(int index, long recordNumber, String name) throws StatementParseException {
+        if (index < 0 || index >= fields.size() || fields.get(index).isBlank()) {
+            throw new StatementParseException(recordNumber, "missing " + name);
+        }
+        return fields.get(index);
+    }
+
+    private String optional(int index) {
+        if (index < 0 || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalizeType(String value, long recordNumber) throws StatementParseException {
+        return switch (value.trim().toUpperCase(Locale.ROOT)) {
+            case "" -> null;
+            case "INCOME", "CREDIT", "CR", "DEPOSIT" -> "INCOME";
+            case "EXPENSE", "DEBIT", "DR", "PAYMENT", "WITHDRAWAL" -> "EXPENSE";
+            default -> throw new StatementParseException(recordNumber, "unknown type '" + value + "'");
+        };
+    }
+
+    /** Reads the next record into {@link #fields}; returns its first line number or -1 at EOF. */
+    private long readRecord() throws IOException {
+        String line = in.readLine();
+        if (line == null) return -1;
+        long recordNumber = ++lineNumber;
+
+        fields.clear();
+        field.setLength(0);
+        char delimiter = columns.delimiter();
+        boolean quoted = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+
+            if (!quoted) break;
+            line = in.readLine();
+            if (line == null) break;
+            lineNumber++;
+            field.append('\n');
+        }
+
+        fields.add(field.toString());
+        return recordNumber;
+    }
+}
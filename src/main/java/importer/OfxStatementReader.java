@@ -0,0 +1,132 @@
+package importer;
+
+import entity.Money;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Streaming reader for OFX 1.x (SGML, unclosed leaf tags) and OFX 2.x (XML)
+ * statements. It tokenizes on {@code <tag>value} pairs character by character,
+ * so files that put the whole document on one line are handled too. Only
+ * {@code <STMTTRN>} blocks are mapped; everything else is skipped.
+ */
+public class OfxStatementReader implements StatementReader {
+    private final Reader in;
+    private final StringBuilder token = new StringBuilder();
+    private int pending = -1;
+    private long ordinal = 0;
+
+    private String posted;
+    private String amount;
+    private String name;
+    private String memo;
+
+    public OfxStatementReader(Reader in) {
+        this.in = in;
+    }
+
+    @Override
+    public StatementLine next() throws IOException, StatementParseException {
+        boolean inTransaction = false;
+
+        String tag;
+        while ((tag = readTag()) != null) {
+            if (tag.equals("STMTTRN")) {
+                inTransaction = true;
+                posted = amount = name = memo = null;
+                ordinal++;
+            } else if (tag.equals("/STMTTRN")) {
+                if (inTransaction) return build();
+            } else if (inTransaction && !tag.startsWith("/")) {
+                String value = readValue();
+                switch (tag) {
+                    case "DTPOSTED" -> posted = value;
+                    case "TRNAMT" -> amount = value;
+                    case "NAME", "PAYEE" -> name = value;
+                    case "MEMO" -> memo = value;
+                    default -> { }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private StatementLine build() throws StatementParseException {
+        if (posted == null || posted.length() < 8) {
+            throw new StatementParseException(ordinal, "missing or short DTPOSTED");
+        }
+        if (amount == null || amount.isEmpty()) {
+            throw new StatementParseException(ordinal, "missing TRNAMT");
+        }
+
+        LocalDate date;
+        try {
+            date = LocalDate.of(Integer.parseInt(posted.substring(0, 4)),
+                    Integer.parseInt(posted.substring(4, 6)),
+                    Integer.parseInt(posted.substring(6, 8)));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new StatementParseException(ordinal, "invalid DTPOSTED '" + posted + "'");
+        }
+
+        long cents;
+        try {
+            cents = Money.parse(amount.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new StatementParseException(ordinal, "invalid TRNAMT '" + amount + "'");
+        }
+
+        String description = name;
+        if (memo != null && !memo.equals(name)) {
+            description = name == null ? memo : name + " - " + memo;
+        }
+        return new StatementLine(ordinal, date, cents, null, description, null);
+    }
+
+    /** Skips to the next '<' and returns the upper-cased tag name, or null at EOF. */
+    private String readTag() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            // skip text outside of the tags we care about
+        }
+        if (c == -1) return null;
+
+        token.setLength(0);
+        while ((c = read()) != -1 && c != '>') {
+            token.append((char) c);
+        }
+        return token.toString().trim().toUpperCase();
+    }
+
+    /** Reads the text following a tag, up to (but not including) the next '<'. */
+    private String readValue() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            token.append((char) c);
+        }
+        if (c == '<') pending = c;
+        return unescape(token.toString().trim());
+    }
+
+    private int read() throws IOException {
+        if (pending != -1) {
+            int c = pending;
+            pending = -1;
+            return c;
+        }
+        return in.read();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) return value;
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,94 @@
+package importer;
+
+import entity.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Reader for QIF bank/cash/card registers. Each record is a run of
+ * single-letter fields (D date, T amount, P payee, M memo, L category)
+ * terminated by a {@code ^} line. Dates are read as US month/day/year, the
+ * convention used by most exporters.
+ */
+public class QifStatementReader implements StatementReader {
+    private final BufferedReader in;
+    private long lineNumber = 0;
+
+    public QifStatementReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    public StatementLine next() throws IOException, StatementParseException {
+        String date = null, amount = null, payee = null, memo = null, category = null;
+        long recordStart = -1;
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '!') continue;
+            if (recordStart < 0) recordStart = lineNumber;
+
+            String value = line.substring(1).trim();
+            switch (line.charAt(0)) {
+                case 'D' -> date = value;
+                case 'T', 'U' -> amount = value;
+                case 'P' -> payee = value;
+                case 'M' -> memo = value;
+                case 'L' -> category = value.startsWith("[") ? null : value;
+                case '^' -> {
+                    return build(recordStart, date, amount, payee, memo, category);
+                }
+                default -> { }
+            }
+        }
+
+        // A final record without a trailing '^'
+        if (date != null || amount != null) {
+            return build(recordStart, date, amount, payee, memo, category);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private StatementLine build(long recordNumber, String date, String amount,
+                                String payee, String memo, String category) throws StatementParseException {
+        if (date == null) throw new StatementParseException(recordNumber, "missing D (date)");
+        if (amount == null) throw new StatementParseException(recordNumber, "missing T (amount)");
+
+        long cents;
+        try {
+            cents = Money.parse(amount.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new StatementParseException(recordNumber, "invalid amount '" + amount + "'");
+        }
+
+        String description = payee;
+        if (memo != null && !memo.isEmpty()) {
+            description = payee == null ? memo : payee + " - " + memo;
+        }
+        return new StatementLine(recordNumber, parseDate(recordNumber, date), cents, null, description, category);
+    }
+
+    // Accepts 1/15/2024, 01/15/24, 1/15'24 and 1-15-2024
+    private static LocalDate parseDate(long recordNumber, String text) throws StatementParseException {
+        String[] parts = text.replace(" ", "").replace('\'', '/').replace('-', '/').split("/");
+        try {
+            if (parts.length != 3) throw new NumberFormatException();
+            int month = Integer.parseInt(parts[0]);
+            int day = Integer.parseInt(parts[1]);
+            int year = Integer.parseInt(parts[2]);
+            if (year < 100) year += 2000;
+            return LocalDate.of(year, month, day);
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new StatementParseException(recordNumber, "invalid date '" + text + "'");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public enum StatementFormat {
+    CSV, OFX, QIF;
+
+    public static StatementFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".ofx") || lower.endsWith(".qfx")) return OFX;
+        if (lower.endsWith(".qif")) return QIF;
+        if (lower.endsWith(".csv") || lower.endsWith(".txt")) return CSV;
+        throw new IllegalArgumentException("Unsupported statement format: " + fileName);
+    }
+
+    public StatementReader open(Path file) throws IOException {
+        // InputStreamReader substitutes undecodable bytes instead of failing the whole import
+        BufferedReader in = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), 64 * 1024);
+        return switch (this) {
+            case CSV -> new CsvStatementReader(in, CsvColumns.defaults());
+            case OFX -> new OfxStatementReader(in);
+            case QIF -> new QifStatementReader(in);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package importer;
+
+import java.time.LocalDate;
+
+/**
+ * One transaction as read from a bank statement, before it is mapped to a
+ * {@link entity.Transaction}.
+ *
+ * @param recordNumber line number (CSV/QIF) or transaction ordinal (OFX), for error messages
+ * @param amount       signed amount in cents; negative means money going out
+ * @param type         explicit INCOME/EXPENSE from the file, or {@code null} to derive it from the sign
+ * @param category     category name from the file, or {@code null}
+ */
+public record StatementLine(long recordNumber,
+                            LocalDate date,
+                            long amount,
+                            String type,
+                            String description,
+                            String category) {
+
+    public String resolvedType() {
+        if (type != null) return type;
+        return amount < 0 ? "EXPENSE" : "INCOME";
+    }
+}
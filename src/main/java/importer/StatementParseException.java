@@ -0,0 +1,23 @@
+package importer;
+
+import java.io.Serial;
+
+/**
+ * A single statement record could not be parsed. The reader stays positioned
+ * after the bad record, so the caller may skip it and keep reading.
+ */
+public class StatementParseException extends Exception {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long recordNumber;
+
+    public StatementParseException(long recordNumber, String message) {
+        super("Record " + recordNumber + ": " + message);
+        this.recordNumber = recordNumber;
+    }
+
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+}
@@ -0,0 +1,17 @@
+package importer;
+
+import java.io.IOException;
+
+/**
+ * Pull-based reader over a bank statement. Implementations parse one record
+ * per call and keep only that record in memory, so statements of any size
+ * can be imported in a single pass.
+ */
+public interface StatementReader extends AutoCloseable {
+
+    /** @return the next record, or {@code null} at the end of the statement */
+    StatementLine next() throws IOException, StatementParseException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -7,15 +7,21 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Categories table access, scoped like {@link TransactionRepository}: every
+ * method reads or changes only the given user's categories, through the
+ * (user_id, type, name) index.
+ */
 public class CategoryRepository {
 
-    public void save(Category category) {
-        String sql = "INSERT INTO categories (name, type) VALUES (?, ?)";
+    public void save(int userId, Category category) {
+        String sql = "INSERT INTO categories (name, type, user_id) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, category.getName());
             pstmt.setString(2, category.getType());
+            pstmt.setInt(3, userId);
             pstmt.executeUpdate();
 
             ResultSet generatedKeys = pstmt.getGeneratedKeys();
@@ -27,14 +33,15 @@ public class CategoryRepository {
         }
     }
 
-    public List<Category> findAll() {
+    public List<Category> findAll(int userId) {
         List<Category> categories = new ArrayList<>();
-        String sql = "SELECT * FROM categories ORDER BY type, name";
+        String sql = "SELECT * FROM categories WHERE user_id = ? ORDER BY type, name";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 categories.add(mapResultSetToCategory(rs));
             }
@@ -44,12 +51,14 @@ public class CategoryRepository {
         return categories;
     }
 
-    public Category findById(Long id) {
-        String sql = "SELECT * FROM categories WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+    /** @return the category, or {@code null} if it does not exist or belongs to another user */
+    public Category findById(int userId, Long id) {
+        String sql = "SELECT * FROM categories WHERE id = ? AND user_id = ?";
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setLong(1, id);
+            pstmt.setInt(2, userId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
                 return mapResultSetToCategory(rs);
@@ -60,14 +69,15 @@ public class CategoryRepository {
         return null;
     }
 
-    public List<Category> findByType(String type) {
+    public List<Category> findByType(int userId, String type) {
         List<Category> categories = new ArrayList<>();
-        String sql = "SELECT * FROM categories WHERE type = ? ORDER BY name";
+        String sql = "SELECT * FROM categories WHERE user_id = ? AND type = ? ORDER BY name";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, type);
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, type);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 categories.add(mapResultSetToCategory(rs));
@@ -78,12 +88,13 @@ public class CategoryRepository {
         return categories;
     }
 
-    public void delete(Long id) {
-        String sql = "DELETE FROM categories WHERE id = ?";
+    public void delete(int userId, Long id) {
+        String sql = "DELETE FROM categories WHERE id = ? AND user_id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setLong(1, id);
+            pstmt.setInt(2, userId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             System.err.println("Error deleting category: " + e.getMessage());
@@ -0,0 +1,22 @@
+package repository;
+
+import java.io.Serial;
+import java.sql.SQLException;
+
+/**
+ * Unchecked wrapper for a {@link SQLException} raised while a result stream is
+ * being consumed, where the checked exception cannot cross the Stream API.
+ * Also thrown when no pooled connection can be borrowed.
+ */
+public class DataAccessException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, SQLException cause) {
+        super(message + ": " + cause.getMessage(), cause);
+    }
+
+    public DataAccessException(String message) {
+        super(message);
+    }
+}
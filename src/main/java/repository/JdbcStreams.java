@@ -0,0 +1,79 @@
+package repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily maps a {@link ResultSet} into a {@link Stream}, one row per element.
+ * The stream owns the result set, statement and connection and releases all
+ * three when it is closed, so callers must use try-with-resources.
+ */
+public final class JdbcStreams {
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    private JdbcStreams() {}
+
+    @FunctionalInterface
+    public interface ParameterBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * @throws DataAccessException if {@code conn} is {@code null} or the query
+     *         fails; an empty stream always means the query matched no rows
+     */
+    public static <T> Stream<T> stream(Connection conn, String sql, ParameterBinder binder, RowMapper<T> mapper) {
+        if (conn == null) {
+            throw new DataAccessException("Error opening result stream: no connection");
+        }
+
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DEFAULT_FETCH_SIZE);
+            binder.bind(pstmt);
+            ResultSet rs = pstmt.executeQuery();
+
+            PreparedStatement statement = pstmt;
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) return false;
+                        action.accept(mapper.map(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new DataAccessException("Error reading result stream", e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> closeAll(rs, statement, conn));
+        } catch (SQLException e) {
+            closeAll(null, pstmt, conn);
+            throw new DataAccessException("Error opening result stream", e);
+        }
+    }
+
+    private static void closeAll(ResultSet rs, PreparedStatement pstmt, Connection conn) {
+        try {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing result stream: " + e.getMessage());
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error releasing connection: " + e.getMessage());
+            }
+        }
+    }
+}
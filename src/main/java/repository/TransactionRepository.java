@@ -1,22 +1,39 @@
 package repository;
 
 import database.DatabaseConnection;
+import entity.DateRange;
+import entity.PeriodTotals;
 import entity.Transaction;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+/**
+ * Transactions table access. Every method takes the owning user's id and
+ * touches only that user's rows, so each query is a seek on one of the
+ * {@code (user_id, ...)} indexes and costs the same however many other
+ * users share the database.
+ */
 public class TransactionRepository {
+    public static final int DEFAULT_BATCH_SIZE = 500;
 
-    public void save(Transaction transaction) {
-        String sql = "INSERT INTO transactions (type, amount, date, description, category_id) VALUES (?, ?, ?, ?, ?)";
+    // Public so QueryPlanCheck verifies the production text
+    public static final String BY_DATE_RANGE_SQL = "SELECT * FROM transactions WHERE user_id = ? AND date BETWEEN ? AND ? ORDER BY date DESC, id DESC";
+    public static final String BY_CATEGORY_SQL = "SELECT * FROM transactions WHERE user_id = ? AND category_id = ? ORDER BY date DESC, id DESC";
+
+    public void save(int userId, Transaction transaction) {
+        String sql = "INSERT INTO transactions (type, amount, date, description, category_id, user_id) VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, transaction.getType());
-            pstmt.setDouble(2, transaction.getAmount());
+            pstmt.setLong(2, transaction.getAmount());
             pstmt.setString(3, transaction.getDate().toString());
             pstmt.setString(4, transaction.getDescription());
             if (transaction.getCategoryId() != null) {
@@ -24,6 +41,7 @@ public class TransactionRepository {
             } else {
                 pstmt.setNull(5, Types.INTEGER);
             }
+            pstmt.setInt(6, userId);
             pstmt.executeUpdate();
 
             ResultSet generatedKeys = pstmt.getGeneratedKeys();
@@ -35,13 +53,95 @@ public class TransactionRepository {
         }
     }
 
-    public List<Transaction> findAll() {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions ORDER BY date DESC";
+    public List<Long> saveAll(int userId, Collection<Transaction> transactions) {
+        return saveAll(userId, transactions, DEFAULT_BATCH_SIZE);
+    }
 
+    /**
+     * Inserts all transactions in one database transaction, sending them to
+     * SQLite in JDBC batches of {@code batchSize} rows. Generated ids are
+     * written back to the entities and returned in input order; on failure
+     * nothing is inserted and an empty list is returned.
+     */
+    public List<Long> saveAll(int userId, Collection<Transaction> transactions, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        List<Long> ids = new ArrayList<>(transactions.size());
+        if (transactions.isEmpty()) return ids;
+
+        String sql = "INSERT INTO transactions (type, amount, date, description, category_id, user_id) VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement lastId = conn.prepareStatement("SELECT last_insert_rowid()")) {
+
+            conn.setAutoCommit(false);
+            try {
+                List<Transaction> chunk = new ArrayList<>(Math.min(batchSize, transactions.size()));
+                for (Transaction transaction : transactions) {
+                    pstmt.setString(1, transaction.getType());
+                    pstmt.setLong(2, transaction.getAmount());
+                    pstmt.setString(3, transaction.getDate().toString());
+                    pstmt.setString(4, transaction.getDescription());
+                    if (transaction.getCategoryId() != null) {
+                        pstmt.setLong(5, transaction.getCategoryId());
+                    } else {
+                        pstmt.setNull(5, Types.INTEGER);
+                    }
+                    pstmt.setInt(6, userId);
+                    pstmt.addBatch();
+                    chunk.add(transaction);
+
+                    if (chunk.size() == batchSize) {
+                        flushBatch(pstmt, lastId, chunk, ids);
+                    }
+                }
+                flushBatch(pstmt, lastId, chunk, ids);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                for (Transaction transaction : transactions) {
+                    transaction.setId(null);
+                }
+                ids.clear();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving transactions batch: " + e.getMessage());
+        }
+        return ids;
+    }
+
+    // sqlite-jdbc returns no generated keys for executeBatch. The rows of a batch
+    // are inserted back to back by the single writer inside one transaction, so
+    // their AUTOINCREMENT ids are consecutive and end at last_insert_rowid().
+    private void flushBatch(PreparedStatement pstmt, PreparedStatement lastId,
+                            List<Transaction> chunk, List<Long> ids) throws SQLException {
+        if (chunk.isEmpty()) return;
+        pstmt.executeBatch();
+
+        long last;
+        try (ResultSet rs = lastId.executeQuery()) {
+            rs.next();
+            last = rs.getLong(1);
+        }
+        long id = last - chunk.size() + 1;
+        for (Transaction transaction : chunk) {
+            transaction.setId(id);
+            ids.add(id++);
+        }
+        chunk.clear();
+    }
+
+    public List<Transaction> findAll(int userId) {
+        List<Transaction> transactions = new ArrayList<>();
+        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY date DESC, id DESC";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
                 transactions.add(mapResultSetToTransaction(rs));
@@ -52,15 +152,15 @@ public class TransactionRepository {
         return transactions;
     }
 
-    public List<Transaction> findByDateRange(LocalDate startDate, LocalDate endDate) {
+    public List<Transaction> findByDateRange(int userId, LocalDate startDate, LocalDate endDate) {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE date BETWEEN ? AND ? ORDER BY date DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BY_DATE_RANGE_SQL)) {
 
-            pstmt.setString(1, startDate.toString());
-            pstmt.setString(2, endDate.toString());
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, startDate.toString());
+            pstmt.setString(3, endDate.toString());
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -72,14 +172,14 @@ public class TransactionRepository {
         return transactions;
     }
 
-    public List<Transaction> findByCategoryId(Long categoryId) {
+    public List<Transaction> findByCategoryId(int userId, Long categoryId) {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE category_id = ? ORDER BY date DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BY_CATEGORY_SQL)) {
 
-            pstmt.setLong(1, categoryId);
+            pstmt.setInt(1, userId);
+            pstmt.setLong(2, categoryId);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -91,34 +191,102 @@ public class TransactionRepository {
         return transactions;
     }
 
-    public Double getTotalByTypeAndPeriod(String type, LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT SUM(amount) as total FROM transactions WHERE type = ? AND date BETWEEN ? AND ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Streaming counterpart of {@link #findAll(int)}: rows are mapped as the
+     * stream is consumed, so memory stays flat however long the history is.
+     * The stream holds a database connection until it is closed; always use
+     * it in try-with-resources.
+     */
+    public Stream<Transaction> streamAll(int userId) {
+        String sql = "SELECT * FROM transactions WHERE user_id = ? ORDER BY date DESC, id DESC";
+        return JdbcStreams.stream(DatabaseConnection.getReadConnection(), sql,
+                pstmt -> pstmt.setInt(1, userId), this::mapResultSetToTransaction);
+    }
 
-            pstmt.setString(1, type);
+    public Stream<Transaction> streamByDateRange(int userId, LocalDate startDate, LocalDate endDate) {
+        return JdbcStreams.stream(DatabaseConnection.getReadConnection(), BY_DATE_RANGE_SQL, pstmt -> {
+            pstmt.setInt(1, userId);
             pstmt.setString(2, startDate.toString());
             pstmt.setString(3, endDate.toString());
+        }, this::mapResultSetToTransaction);
+    }
+
+    public Stream<Transaction> streamByCategoryId(int userId, Long categoryId) {
+        return JdbcStreams.stream(DatabaseConnection.getReadConnection(), BY_CATEGORY_SQL, pstmt -> {
+            pstmt.setInt(1, userId);
+            pstmt.setLong(2, categoryId);
+        }, this::mapResultSetToTransaction);
+    }
+
+    /** Callback variant of {@link #streamAll(int)} that manages the stream's lifetime itself. */
+    public void forEach(int userId, Consumer<? super Transaction> action) {
+        try (Stream<Transaction> transactions = streamAll(userId)) {
+            transactions.forEach(action);
+        } catch (DataAccessException e) {
+            System.err.println("Error streaming transactions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Income, expense, count, min and max of one user's transactions for every
+     * period, in one query. Each period is an index range seek on
+     * (user_id, date), so there are no paired INCOME/EXPENSE round-trips.
+     *
+     * @return one entry per period, in input order; periods without transactions have all zeros
+     */
+    public List<PeriodTotals> totalsByPeriods(int userId, List<DateRange> periods) {
+        List<PeriodTotals> totals = new ArrayList<>(periods.size());
+        if (periods.isEmpty()) return totals;
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(totalsByPeriodsSql(periods.size()))) {
+
+            int index = 1;
+            for (int i = 0; i < periods.size(); i++) {
+                pstmt.setInt(index++, i);
+                pstmt.setString(index++, periods.get(i).start().toString());
+                pstmt.setString(index++, periods.get(i).end().toString());
+            }
+            pstmt.setInt(index, userId);
             ResultSet rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getDouble("total");
+            while (rs.next()) {
+                totals.add(new PeriodTotals(periods.get(rs.getInt(1)),
+                        rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6)));
             }
         } catch (SQLException e) {
-            System.err.println("Error calculating total: " + e.getMessage());
+            System.err.println("Error calculating totals: " + e.getMessage());
         }
-        return 0.0;
+        return totals;
+    }
+
+    /** The query behind {@link #totalsByPeriods} for {@code periods} periods; also plan-checked at startup. */
+    public static String totalsByPeriodsSql(int periods) {
+        return """
+            WITH periods (idx, start_date, end_date) AS (VALUES %s)
+            SELECT periods.idx,
+                   COALESCE(SUM(CASE WHEN t.type = 'INCOME' THEN t.amount END), 0),
+                   COALESCE(SUM(CASE WHEN t.type = 'EXPENSE' THEN t.amount END), 0),
+                   COUNT(t.id),
+                   COALESCE(MIN(t.amount), 0),
+                   COALESCE(MAX(t.amount), 0)
+            FROM periods
+            LEFT JOIN transactions t ON t.user_id = ? AND t.date BETWEEN periods.start_date AND periods.end_date
+            GROUP BY periods.idx
+            ORDER BY periods.idx
+            """.formatted(String.join(", ", Collections.nCopies(periods, "(?, ?, ?)")));
     }
 
     private Transaction mapResultSetToTransaction(ResultSet rs) throws SQLException {
+        Long categoryId = rs.getLong("category_id");
+        if (rs.wasNull()) categoryId = null;
         return new Transaction(
                 rs.getLong("id"),
                 rs.getString("type"),
-                rs.getDouble("amount"),
+                rs.getLong("amount"),
                 LocalDate.parse(rs.getString("date")),
                 rs.getString("description"),
-                rs.getLong("category_id")
+                categoryId
         );
     }
 }
\ No newline at end of file
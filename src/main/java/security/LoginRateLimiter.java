@@ -0,0 +1,81 @@
+package security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per username: a burst of {@code burst} attempts, then one
+ * more every {@code refillMillis}. An attempt takes a token before the
+ * password is hashed, so guessing at one account costs the attacker time and
+ * costs the server at most one hash per refill interval.
+ */
+public final class LoginRateLimiter {
+    public static final int DEFAULT_BURST = 5;
+    public static final long DEFAULT_REFILL_MILLIS = 12_000;
+    // Above this many tracked names, buckets that have refilled completely are dropped
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private static final LoginRateLimiter SHARED = new LoginRateLimiter(DEFAULT_BURST, DEFAULT_REFILL_MILLIS);
+
+    private final int burst;
+    private final long refillNanos;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public LoginRateLimiter(int burst, long refillMillis) {
+        if (burst < 1 || refillMillis < 1) {
+            throw new IllegalArgumentException("Burst and refill interval must be positive");
+        }
+        this.burst = burst;
+        this.refillNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis);
+    }
+
+    public static LoginRateLimiter shared() {
+        return SHARED;
+    }
+
+    /**
+     * Takes one attempt for {@code username}.
+     *
+     * @return 0 if the attempt may go ahead, otherwise milliseconds until the next one may
+     */
+    public long tryAcquire(String username) {
+        long now = System.nanoTime();
+        if (buckets.size() > PURGE_THRESHOLD) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(username, name -> new Bucket(now)).tryTake(now);
+    }
+
+    /** Forgets the attempts of {@code username}, e.g. after a successful login. */
+    public void reset(String username) {
+        buckets.remove(username);
+    }
+
+    private final class Bucket {
+        private double tokens = burst;
+        private long refilledAt;
+
+        private Bucket(long now) {
+            this.refilledAt = now;
+        }
+
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis((long) ((1 - tokens) * refillNanos));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (double) (now - refilledAt) / refillNanos);
+            refilledAt = now;
+        }
+    }
+}
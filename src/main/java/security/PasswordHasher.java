@@ -0,0 +1,142 @@
+package security;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PBKDF2-HMAC-SHA256 password hashes, stored as
+ * {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (Base64 without padding),
+ * so the iteration count can be raised later without breaking old hashes.
+ * <p>
+ * One hash costs on the order of 100 ms of CPU. {@link #hash} and
+ * {@link #verify} therefore run on a fixed pool with one platform thread per
+ * core and a bounded queue. The calling thread, typically a virtual request
+ * thread, just waits. A login burst then queues instead of occupying every
+ * carrier thread, and once the queue is full further attempts fail fast with
+ * {@link ThrottledException} instead of piling up.
+ */
+public final class PasswordHasher {
+    public static final int ITERATIONS = 600_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    // Hashes that may wait per worker; at ~100 ms each that is a few seconds of backlog
+    private static final int QUEUE_PER_WORKER = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    // Workers start on first use
+    private static final PasswordHasher SHARED = new PasswordHasher(Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors() * QUEUE_PER_WORKER);
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(int workers, int queueLimit) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Process-wide hasher with one worker per core. */
+    public static PasswordHasher shared() {
+        return SHARED;
+    }
+
+    /**
+     * Hashes {@code password} with a fresh salt on the worker pool.
+     *
+     * @throws ThrottledException if the pool's queue is full
+     */
+    public String hash(String password) {
+        return await(() -> hashNow(password));
+    }
+
+    /**
+     * Checks {@code password} against a stored hash on the worker pool.
+     *
+     * @throws ThrottledException if the pool's queue is full
+     */
+    public boolean verify(String password, String stored) {
+        return await(() -> verifyNow(password, stored));
+    }
+
+    /** Hashes on the calling thread; for migrations and setup code. */
+    public static String hashNow(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, ITERATIONS);
+        return PREFIX + "$" + ITERATIONS + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(hash);
+    }
+
+    /** Verifies on the calling thread; {@code false} for anything that is not a valid stored hash. */
+    public static boolean verifyNow(String password, String stored) {
+        if (!isHash(stored)) return false;
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = DECODER.decode(parts[2]);
+            byte[] expected = DECODER.decode(parts[3]);
+            // Constant-time comparison, so timing does not reveal a matching prefix
+            return MessageDigest.isEqual(pbkdf2(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** {@code true} if {@code stored} is in the hash format rather than legacy plaintext. */
+    public static boolean isHash(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw ThrottledException.overloaded();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ThrottledException.overloaded();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package security;
+
+import java.io.Serial;
+
+/**
+ * A login or password operation turned away before any work was done, either
+ * because the account used up its attempts or because the hashing pool is
+ * full. The caller should retry after {@link #getRetryAfterSeconds()}.
+ */
+public class ThrottledException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+    private final boolean overloaded;
+
+    private ThrottledException(String message, long retryAfterSeconds, boolean overloaded) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.overloaded = overloaded;
+    }
+
+    public static ThrottledException rateLimited(long retryAfterMillis) {
+        long seconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        return new ThrottledException("Too many login attempts, try again in " + seconds + " s", seconds, false);
+    }
+
+    public static ThrottledException overloaded() {
+        return new ThrottledException("Too many logins in progress, try again shortly", 1, true);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /** {@code true} if the server is busy rather than this account being limited. */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+}
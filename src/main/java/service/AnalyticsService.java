@@ -1,14 +1,22 @@
 package service;
 
+import analytics.ColumnarAnalytics;
+import analytics.TransactionColumns;
 import database.DatabaseConnection;
+import entity.Money;
+import entity.DateRange;
+import entity.PeriodTotals;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class AnalyticsService {
     private final AuthService authService = new AuthService();
+    private final LedgerCache cache = LedgerCache.shared();
 
     private Integer getUserId() {
         return authService.getCurrentUserId();
@@ -18,19 +26,30 @@ public class AnalyticsService {
         Integer userId = getUserId();
         if (userId == null) return new HashMap<>();
 
+        try {
+            return cache.get(userId, "report:monthly-summary", LedgerCache.Table.TRANSACTIONS,
+                    () -> loadMonthlySummary(userId));
+        } catch (SQLException e) {
+            System.err.println("Error getting monthly summary: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    private Map<String, Double> loadMonthlySummary(int userId) throws SQLException {
         Map<String, Double> summary = new HashMap<>();
+        // Whole calendar months from monthly_totals, so the cost grows with months, not transactions
         String sql = """
-            SELECT 
-                strftime('%Y-%m', date) as month,
-                SUM(CASE WHEN type = 'INCOME' THEN amount ELSE 0 END) as income,
-                SUM(CASE WHEN type = 'EXPENSE' THEN amount ELSE 0 END) as expense
-            FROM transactions
-            WHERE user_id = ? AND date >= date('now', '-6 months')
-            GROUP BY strftime('%Y-%m', date)
+            SELECT
+                month,
+                SUM(CASE WHEN type = 'INCOME' THEN total ELSE 0 END) as income,
+                SUM(CASE WHEN type = 'EXPENSE' THEN total ELSE 0 END) as expense
+            FROM monthly_totals
+            WHERE user_id = ? AND month >= strftime('%Y-%m', 'now', '-6 months')
+            GROUP BY month
             ORDER BY month DESC
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
@@ -38,85 +57,193 @@ public class AnalyticsService {
 
             while (rs.next()) {
                 String month = rs.getString("month");
-                double income = rs.getDouble("income");
-                double expense = rs.getDouble("expense");
-                summary.put(month + "_income", income);
-                summary.put(month + "_expense", expense);
-                summary.put(month + "_balance", income - expense);
+                long income = rs.getLong("income");
+                long expense = rs.getLong("expense");
+                summary.put(month + "_income", Money.toDouble(income));
+                summary.put(month + "_expense", Money.toDouble(expense));
+                summary.put(month + "_balance", Money.toDouble(income - expense));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting monthly summary: " + e.getMessage());
         }
-        return summary;
+        return Map.copyOf(summary);
     }
 
     public List<Map<String, Object>> getExpensesByCategory() {
         Integer userId = getUserId();
         if (userId == null) return new ArrayList<>();
 
-        List<Map<String, Object>> expenses = new ArrayList<>();
+        try {
+            return cache.get(userId, "report:expenses-by-category",
+                    EnumSet.of(LedgerCache.Table.TRANSACTIONS, LedgerCache.Table.CATEGORIES),
+                    () -> loadExpensesByCategory(userId));
+        } catch (SQLException e) {
+            System.err.println("Error getting expenses by category: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Map<String, Object>> loadExpensesByCategory(int userId) throws SQLException {
+        CategoryTable categories = CategoryTable.forUser(userId);
+        Map<String, Long> totals = new HashMap<>();
         String sql = """
-            SELECT c.name, SUM(t.amount) as total
-            FROM transactions t
-            JOIN categories c ON t.category_id = c.id
-            WHERE t.type = 'EXPENSE' AND t.user_id = ? 
-                AND t.date >= date('now', 'start of month')
-            GROUP BY c.name
-            ORDER BY total DESC
+            SELECT category_id, SUM(total) as total
+            FROM monthly_totals
+            WHERE user_id = ? AND type = 'EXPENSE'
+                AND month >= strftime('%Y-%m', 'now')
+            GROUP BY category_id
             """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Map<String, Object> expense = new HashMap<>();
-                expense.put("category", rs.getString("name"));
-                expense.put("total", rs.getDouble("total"));
-                expenses.add(expense);
+                // Uncategorized expenses (category_id 0) have no name and are left out
+                String name = categories.nameOf(rs.getLong("category_id"));
+                if (name != null) {
+                    totals.merge(name, rs.getLong("total"), Long::sum);
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting expenses by category: " + e.getMessage());
         }
-        return expenses;
+
+        List<Map<String, Object>> expenses = new ArrayList<>(totals.size());
+        totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> expenses.add(Map.of("category", e.getKey(), "total", e.getValue())));
+        return List.copyOf(expenses);
     }
 
     public Map<String, Double> getFinancialHealth() {
-        Integer userId = getUserId();
-        if (userId == null) return new HashMap<>();
+        if (getUserId() == null) return new HashMap<>();
 
+        PeriodTotals totals = getLifetimeTotals();
         Map<String, Double> health = new HashMap<>();
-        String sqlIncome = "SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE type = 'INCOME' AND user_id = ?";
-        String sqlExpense = "SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE type = 'EXPENSE' AND user_id = ?";
+        // Суммы точные (в центах), в double переводим только для отображения
+        health.put("total_income", Money.toDouble(totals.income()));
+        health.put("total_expense", Money.toDouble(totals.expense()));
+        health.put("balance", Money.toDouble(totals.balance()));
+        health.put("savings_rate", totals.savingsRate());
+        return health;
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
+    /**
+     * Whole-history income, expense and transaction count of the current user,
+     * read from the rollup in O(months). The rollup has no per-row min/max, so
+     * those stay 0.
+     */
+    public PeriodTotals getLifetimeTotals() {
+        PeriodTotals empty = new PeriodTotals(DateRange.ALL_TIME, 0, 0, 0, 0, 0);
+        Integer userId = getUserId();
+        if (userId == null) return empty;
 
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlIncome)) {
-                pstmt.setInt(1, userId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    health.put("total_income", rs.getDouble(1));
-                }
+        try {
+            return cache.get(userId, "report:lifetime-totals", LedgerCache.Table.TRANSACTIONS,
+                    () -> loadLifetimeTotals(userId));
+        } catch (SQLException e) {
+            System.err.println("Error getting financial health: " + e.getMessage());
+            return empty;
+        }
+    }
+
+    private PeriodTotals loadLifetimeTotals(int userId) throws SQLException {
+        String sql = """
+            SELECT
+                COALESCE(SUM(CASE WHEN type = 'INCOME' THEN total END), 0),
+                COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN total END), 0),
+                COALESCE(SUM(count), 0)
+            FROM monthly_totals
+            WHERE user_id = ?
+            """;
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) {
+                return new PeriodTotals(DateRange.ALL_TIME, 0, 0, 0, 0, 0);
             }
+            return new PeriodTotals(DateRange.ALL_TIME, rs.getLong(1), rs.getLong(2), rs.getLong(3), 0, 0);
+        }
+    }
+
+    /**
+     * Size profile of the last 12 months of expenses: median, 90th and 99th
+     * percentile of single transactions, plus the largest 30-day spend.
+     * Computed in memory over the user's {@link TransactionColumns}, which are
+     * loaded once, then extended with new rows; see {@link ColumnCache}.
+     */
+    public Map<String, Double> getExpenseDistribution() {
+        Integer userId = getUserId();
+        if (userId == null) return new HashMap<>();
+
+        try {
+            int today = (int) LocalDate.now().toEpochDay();
+            int yearAgo = (int) LocalDate.now().minusMonths(12).toEpochDay();
 
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlExpense)) {
-                pstmt.setInt(1, userId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    health.put("total_expense", rs.getDouble(1));
+            return ColumnCache.shared().withColumns(userId, columns -> {
+                ColumnarAnalytics engine = new ColumnarAnalytics(columns);
+                long[] p = engine.percentiles(TransactionColumns.EXPENSE, yearAgo, today, 50, 90, 99);
+                long busiest = 0;
+                for (long total : engine.rollingTotals(TransactionColumns.EXPENSE, yearAgo, today, 30)) {
+                    busiest = Math.max(busiest, total);
                 }
-            }
 
-            double totalIncome = health.getOrDefault("total_income", 0.0);
-            double totalExpense = health.getOrDefault("total_expense", 0.0);
-            health.put("balance", totalIncome - totalExpense);
-            health.put("savings_rate", totalIncome > 0 ? ((totalIncome - totalExpense) / totalIncome) * 100 : 0);
+                return Map.of(
+                        "median", Money.toDouble(p[0]),
+                        "p90", Money.toDouble(p[1]),
+                        "p99", Money.toDouble(p[2]),
+                        "max_30_days", Money.toDouble(busiest));
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting expense distribution: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Recomputes the current user's monthly_totals rows from the transactions
+     * table. The triggers keep the rollup in step on their own; this is for
+     * recovering from drift, e.g. after rows were edited with triggers disabled.
+     */
+    public boolean rebuildMonthlyTotals() {
+        Integer userId = getUserId();
+        if (userId == null) {
+            System.out.println("❌ You must be logged in!");
+            return false;
+        }
+
+        String deleteSql = "DELETE FROM monthly_totals WHERE user_id = ?";
+        String rebuildSql = """
+            INSERT INTO monthly_totals (user_id, month, type, category_id, total, count)
+            SELECT user_id, substr(date, 1, 7), type, COALESCE(category_id, 0), SUM(amount), COUNT(*)
+            FROM transactions
+            WHERE user_id = ?
+            GROUP BY 1, 2, 3, 4
+            """;
 
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement rebuild = conn.prepareStatement(rebuildSql)) {
+                delete.setInt(1, userId);
+                delete.executeUpdate();
+                rebuild.setInt(1, userId);
+                int rows = rebuild.executeUpdate();
+                conn.commit();
+                cache.invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+                System.out.println("✅ Analytics totals rebuilt (" + rows + " monthly rows)");
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            System.err.println("Error getting financial health: " + e.getMessage());
+            System.err.println("Error rebuilding monthly totals: " + e.getMessage());
         }
-        return health;
+        return false;
     }
 }
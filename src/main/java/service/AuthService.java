@@ -1,94 +1,244 @@
 package service;
 
 import database.DatabaseConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+import repository.DataAccessException;
+import security.LoginRateLimiter;
+import security.PasswordHasher;
+import security.ThrottledException;
+
 import java.sql.*;
 
+/**
+ * Logs users in and out of the {@link SessionContext} of the calling thread.
+ * Holds no state itself, so one instance can serve any number of sessions.
+ * Passwords are stored as {@link PasswordHasher} hashes; login attempts are
+ * limited per username by {@link LoginRateLimiter}.
+ */
 public class AuthService {
-    private static Integer currentUserId = null;
-    private static String currentUsername = null;
 
+    // Unknown names are verified against this, so they cost the same PBKDF2 run as a real account
+    private static final class DummyHash {
+        static final String VALUE = PasswordHasher.hashNow("no such user");
+    }
+
+    /**
+     * Creates the user and logs it in on the current context. The password is
+     * hashed on the {@link PasswordHasher} pool before the writer connection
+     * is borrowed, so other writes never wait for a hash. The user row and its
+     * default categories are inserted in one transaction.
+     *
+     * @return {@code false} only if the username is already taken
+     * @throws ThrottledException if the hashing pool is saturated
+     * @throws DataAccessException if the database fails; nothing is inserted
+     */
     public boolean register(String username, String password, String email) {
+        return register(username, password, email, true);
+    }
+
+    /**
+     * {@link #register(String, String, String)}; with {@code verbose} off,
+     * nothing is printed to the console, as for API clients.
+     */
+    public boolean register(String username, String password, String email, boolean verbose) {
         String checkSql = "SELECT COUNT(*) FROM users WHERE username = ?";
         String insertSql = "INSERT INTO users (username, password, email) VALUES (?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            if (conn == null) return false;
-
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setString(1, username);
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next() && rs.getInt(1) > 0) {
-                    System.out.println("❌ Username already exists!");
-                    return false;
-                }
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
+            checkStmt.setString(1, username);
+            ResultSet rs = checkStmt.executeQuery();
+            if (rs.next() && rs.getInt(1) > 0) {
+                if (verbose) System.out.println("❌ Username already exists!");
+                return false;
             }
+        } catch (SQLException e) {
+            throw new DataAccessException("Registration failed", e);
+        }
+
+        String hash = PasswordHasher.shared().hash(password);
 
+        int userId;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
                 insertStmt.setString(1, username);
-                insertStmt.setString(2, password);
+                insertStmt.setString(2, hash);
                 insertStmt.setString(3, email);
                 insertStmt.executeUpdate();
 
                 ResultSet generatedKeys = insertStmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    currentUserId = generatedKeys.getInt(1);
-                    currentUsername = username;
-                    System.out.println("✅ Registration successful! User ID: " + currentUserId);
-
-                    createDefaultCategories(conn, currentUserId);
-                    return true;
+                if (!generatedKeys.next()) {
+                    throw new SQLException("No id generated for the new user");
+                }
+                userId = generatedKeys.getInt(1);
+                createDefaultCategories(conn, userId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                // A concurrent registration of the same name fails here on the UNIQUE constraint
+                if (e instanceof SQLiteException sqlite
+                        && sqlite.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE) {
+                    if (verbose) System.out.println("❌ Username already exists!");
+                    return false;
                 }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            System.err.println("❌ Registration failed: " + e.getMessage());
+            throw new DataAccessException("Registration failed", e);
         }
-        return false;
+
+        startSession(new Session(userId, username));
+        if (verbose) System.out.println("✅ Registration successful! User ID: " + userId);
+        return true;
     }
 
     public boolean login(String username, String password) {
-        String sql = "SELECT id, password FROM users WHERE username = ?";
+        Session session;
+        try {
+            session = verify(username, password, true);
+        } catch (SQLException e) {
+            System.err.println("❌ Login failed: " + e.getMessage());
+            return false;
+        } catch (ThrottledException e) {
+            System.out.println("❌ " + e.getMessage());
+            return false;
+        }
+        if (session == null) return false;
+
+        startSession(session);
+        System.out.println("✅ Login successful! Welcome, " + username);
+        return true;
+    }
+
+    /**
+     * Checks the credentials like {@link #login}, but leaves every context
+     * untouched and prints nothing for wrong credentials. For callers that
+     * bind their own {@link SessionContext}.
+     *
+     * @return the session for these credentials, or {@code null} if they are wrong
+     * @throws ThrottledException if the account is rate limited or the hashing pool is saturated
+     */
+    public Session authenticate(String username, String password) {
+        try {
+            return verify(username, password, false);
+        } catch (SQLException e) {
+            System.err.println("❌ Login failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /*
+     * A recent identical login is answered from memory. Anything else takes a
+     * rate-limit token first and then one PBKDF2 verification on the bounded
+     * pool, whether or not the name exists, so neither the timing nor the
+     * throttling tells which usernames are registered.
+     */
+    private Session verify(String username, String password, boolean verbose) throws SQLException {
+        return RecentLoginCache.shared().get(username, password, () -> checkPassword(username, password, verbose));
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
+    private Session checkPassword(String username, String password, boolean verbose) throws SQLException {
+        LoginRateLimiter limiter = LoginRateLimiter.shared();
+        long retryAfter = limiter.tryAcquire(username);
+        if (retryAfter > 0) {
+            throw ThrottledException.rateLimited(retryAfter);
+        }
+
+        String sql = "SELECT id, password FROM users WHERE username = ?";
+        int userId;
+        String stored;
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                String dbPassword = rs.getString("password");
-                if (dbPassword.equals(password)) {
-                    currentUserId = rs.getInt("id");
-                    currentUsername = username;
-                    System.out.println("✅ Login successful! Welcome, " + username);
-                    return true;
-                } else {
-                    System.out.println("❌ Incorrect password!");
-                }
+            if (!rs.next()) {
+                userId = 0;
+                stored = null;
             } else {
-                System.out.println("❌ User not found!");
+                userId = rs.getInt(1);
+                stored = rs.getString(2);
             }
-        } catch (SQLException e) {
-            System.err.println("❌ Login failed: " + e.getMessage());
         }
-        return false;
+
+        if (stored == null) {
+            PasswordHasher.shared().verify(password, DummyHash.VALUE);
+            if (verbose) System.out.println("❌ User not found!");
+            return null;
+        }
+        if (!PasswordHasher.shared().verify(password, stored)) {
+            if (verbose) System.out.println("❌ Incorrect password!");
+            return null;
+        }
+
+        limiter.reset(username);
+        return new Session(userId, username);
+    }
+
+    /**
+     * Logs {@code session} in on the current context under a new
+     * {@link SessionStore} token, as {@link #login} and {@link #register} do.
+     *
+     * @return the token, for clients that authenticate later calls with it
+     */
+    public String startSession(Session session) {
+        String token = SessionStore.shared().issue(session);
+        SessionContext.current().setSession(session, token);
+        return token;
+    }
+
+    /**
+     * Resolves a token from {@link #startSession}: an in-memory lookup, no
+     * database access. Leaves every context untouched.
+     *
+     * @return the session, or {@code null} if the token is unknown or expired
+     */
+    public Session resumeSession(String token) {
+        return SessionStore.shared().lookup(token);
     }
 
     public void logout() {
-        currentUserId = null;
-        currentUsername = null;
-        System.out.println("✅ Logged out successfully!");
+        logout(true);
+    }
+
+    /** Ends the current context's session and revokes its token; {@code verbose} prints a confirmation. */
+    public void logout(boolean verbose) {
+        SessionContext context = SessionContext.current();
+        Session session = context.getSession();
+        if (session != null) {
+            LedgerCache.shared().invalidateAll(session.userId());
+        }
+        SessionStore.shared().revoke(context.getToken());
+        context.setSession(null, null);
+        if (verbose) System.out.println("✅ Logged out successfully!");
     }
 
     public boolean isLoggedIn() {
-        return currentUserId != null;
+        return SessionContext.current().getSession() != null;
+    }
+
+    /** @return the token of the calling thread's context, or {@code null} */
+    public String getCurrentToken() {
+        return SessionContext.current().getToken();
+    }
+
+    /** @return the session of the calling thread's context, or {@code null} if logged out */
+    public Session getCurrentSession() {
+        return SessionContext.current().getSession();
     }
 
     public Integer getCurrentUserId() {
-        return currentUserId;
+        Session session = SessionContext.current().getSession();
+        return session != null ? session.userId() : null;
     }
 
     public String getCurrentUsername() {
-        return currentUsername;
+        Session session = SessionContext.current().getSession();
+        return session != null ? session.username() : null;
     }
 
     private void createDefaultCategories(Connection conn, int userId) throws SQLException {
@@ -3,12 +3,21 @@ package service;
 import entity.Category;
 import repository.CategoryRepository;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class CategoryService {
     private final CategoryRepository categoryRepository = new CategoryRepository();
+    private final AuthService authService = new AuthService();
 
-    public void addCategory(String name, String type) {
+    /** @return {@code false} if nobody is logged in or the category could not be saved */
+    public boolean addCategory(String name, String type) {
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) {
+            System.out.println("❌ You must be logged in!");
+            return false;
+        }
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Category name cannot be empty");
         }
@@ -19,26 +28,52 @@ public class CategoryService {
         Category category = new Category();
         category.setName(name);
         category.setType(type);
-        categoryRepository.save(category);
+        categoryRepository.save(userId, category);
+        if (category.getId() == null) return false;
+
+        LedgerCache.shared().invalidate(userId, LedgerCache.Table.CATEGORIES);
+        return true;
     }
 
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return new ArrayList<>();
+        return categoryRepository.findAll(userId);
     }
 
     public List<Category> getIncomeCategories() {
-        return categoryRepository.findByType("INCOME");
+        return getCategoriesByType("INCOME");
     }
 
     public List<Category> getExpenseCategories() {
-        return categoryRepository.findByType("EXPENSE");
+        return getCategoriesByType("EXPENSE");
+    }
+
+    private List<Category> getCategoriesByType(String type) {
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return new ArrayList<>();
+        return categoryRepository.findByType(userId, type);
     }
 
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id);
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return null;
+        try {
+            return CategoryTable.forUser(userId).get(id);
+        } catch (SQLException e) {
+            System.err.println("Error finding category: " + e.getMessage());
+            return null;
+        }
     }
 
     public void deleteCategory(Long id) {
-        categoryRepository.delete(id);
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return;
+
+        categoryRepository.delete(userId, id);
+        // Deleting a category also clears category_id on its transactions
+        LedgerCache.shared().invalidate(userId, LedgerCache.Table.CATEGORIES);
+        LedgerCache.shared().invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+        ColumnCache.shared().invalidate(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package service;
+
+import database.DatabaseConnection;
+import entity.Category;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of one user's categories, indexed by id.
+ * <p>
+ * Ids are kept in a sorted {@code long[]} with names and types in parallel
+ * arrays, so lookups are a binary search without boxing. A user has a handful
+ * of categories that rarely change, which lets listings and reports resolve
+ * category names in memory instead of joining {@code categories}. The table is
+ * cached in {@link LedgerCache} and reloaded after any category change.
+ */
+final class CategoryTable {
+    private static final String CACHE_KEY = "category-table";
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] types;
+
+    private CategoryTable(long[] ids, String[] names, String[] types) {
+        this.ids = ids;
+        this.names = names;
+        this.types = types;
+    }
+
+    static CategoryTable forUser(int userId) throws SQLException {
+        return LedgerCache.shared().get(userId, CACHE_KEY, LedgerCache.Table.CATEGORIES, () -> load(userId));
+    }
+
+    private static CategoryTable load(int userId) throws SQLException {
+        String sql = "SELECT id, name, type FROM categories WHERE user_id = ? ORDER BY id";
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+                names.add(rs.getString(2));
+                types.add(rs.getString(3));
+            }
+        }
+
+        long[] sortedIds = new long[ids.size()];
+        for (int i = 0; i < sortedIds.length; i++) {
+            sortedIds[i] = ids.get(i);
+        }
+        return new CategoryTable(sortedIds, names.toArray(new String[0]), types.toArray(new String[0]));
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long idAt(int index) {
+        return ids[index];
+    }
+
+    String nameAt(int index) {
+        return names[index];
+    }
+
+    String typeAt(int index) {
+        return types[index];
+    }
+
+    /** Position of {@code id} in the table, or -1 if the user has no such category. */
+    int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    /** Category name, or {@code null} for 0/unknown ids (uncategorized). */
+    String nameOf(long id) {
+        int index = indexOf(id);
+        return index >= 0 ? names[index] : null;
+    }
+
+    /** A fresh {@link Category}, since the entity is mutable and the table is shared. */
+    Category get(long id) {
+        int index = indexOf(id);
+        return index >= 0 ? new Category(ids[index], names[index], types[index]) : null;
+    }
+}
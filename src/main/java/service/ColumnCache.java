@@ -0,0 +1,96 @@
+package service;
+
+import analytics.TransactionColumns;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user {@link TransactionColumns}, kept out of {@link LedgerCache} because
+ * they are updated in place rather than reloaded.
+ * <p>
+ * Inserts leave the cached columns alone: the next use appends the rows with
+ * an id above the table's highest id at the last read, which is a rowid range
+ * seek over only the rows inserted since. Only edits and
+ * deletes, which {@code appendNewer} cannot see, call {@link #invalidate} and
+ * force a full reload. The cache is bounded by the number of rows held (about
+ * 21 bytes each), least-recently-used user first; a single history above the
+ * bound is computed over but not kept.
+ */
+final class ColumnCache {
+    static final long DEFAULT_MAX_ROWS = 10_000_000;
+
+    private static final ColumnCache SHARED = new ColumnCache(DEFAULT_MAX_ROWS);
+
+    @FunctionalInterface
+    interface ColumnsFunction<R> {
+        R apply(TransactionColumns columns);
+    }
+
+    /** One user's columns; the monitor guards the columns, the cache lock guards {@code rows}. */
+    private static final class Entry {
+        private TransactionColumns columns;
+        private long rows = 0;
+    }
+
+    private final long maxRows;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedRows = 0;
+
+    ColumnCache(long maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    static ColumnCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Brings the user's columns up to date and runs {@code function} over them.
+     * Calls for the same user are serialized, since appending mutates the arrays.
+     */
+    <R> R withColumns(int userId, ColumnsFunction<R> function) throws SQLException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(userId, id -> new Entry());
+        }
+        synchronized (entry) {
+            if (entry.columns == null) {
+                entry.columns = TransactionColumns.load(userId);
+            } else {
+                entry.columns.appendNewer(userId);
+            }
+            resize(userId, entry, entry.columns.size());
+            return function.apply(entry.columns);
+        }
+    }
+
+    /** Drops the user's columns after an edit or delete; the next use reloads them. */
+    synchronized void invalidate(int userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            cachedRows -= entry.rows;
+        }
+    }
+
+    synchronized long cachedRows() {
+        return cachedRows;
+    }
+
+    private synchronized void resize(int userId, Entry entry, long rows) {
+        // Invalidated while loading: the entry is no longer cached and is not counted
+        if (entries.get(userId) != entry) return;
+
+        cachedRows += rows - entry.rows;
+        entry.rows = rows;
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while (cachedRows > maxRows && eldest.hasNext()) {
+            Map.Entry<Integer, Entry> next = eldest.next();
+            // The caller still uses its columns; they are simply not kept afterwards
+            cachedRows -= next.getValue().rows;
+            eldest.remove();
+        }
+    }
+}
@@ -1,149 +1,286 @@
 package service;
 
-import java.io.FileWriter;
+import entity.GoalView;
+import entity.PeriodTotals;
+import entity.TransactionView;
+import export.ExportFormat;
+import export.ExportJob;
+import export.TextChannelWriter;
+import export.TextReportExporter;
+import export.TransactionExporter;
+import repository.DataAccessException;
+
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Exports of the current user's data.
+ * <p>
+ * Exports run on a background thread and stream rows straight from the
+ * database into a {@link TransactionExporter}, so memory use does not grow
+ * with the history and the caller can show progress or cancel through the
+ * returned {@link ExportJob}. The format follows the file extension (see
+ * {@link ExportFormat}); a trailing {@code .gz} compresses the output. Output
+ * goes to a {@code .part} file that replaces the target only when the export
+ * completes.
+ * <p>
+ * Exports started through {@link #forApi()} run on a separate pool of
+ * {@link #API_WORKERS} threads with a short queue, so one client's long
+ * export cannot hold up the others or the console. When that queue is full
+ * the start methods throw {@link RejectedExecutionException} instead of
+ * queueing.
+ */
 public class ExportService {
+    private static final int RECENT_TRANSACTIONS = 20;
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    public static final int API_WORKERS = 2;
+    private static final int API_QUEUE = 4;
+
+    // Один поток на все экспорты: задания выполняются по очереди
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "export-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    // Each running export holds a reader connection, so the pool stays well below the reader limit
+    private static final ExecutorService API_EXECUTOR = newApiExecutor();
+
+    private final ExecutorService executor;
+
     private final FinanceService financeService = new FinanceService();
+    private final AnalyticsService analyticsService = new AnalyticsService();
     private final AuthService authService = new AuthService();
 
+    public ExportService() {
+        this(EXECUTOR);
+    }
+
+    private ExportService(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /** Exports on the bounded API pool; start methods throw {@link RejectedExecutionException} when it is full. */
+    public static ExportService forApi() {
+        return new ExportService(API_EXECUTOR);
+    }
+
+    @FunctionalInterface
+    private interface ExportBody {
+        void write(WritableByteChannel out, ExportJob job) throws IOException;
+    }
+
+    /** Blocking variant of {@link #startTransactionsExport}. */
     public void exportTransactionsToTxt(String filename) {
-        if (!authService.isLoggedIn()) {
-            System.out.println("❌ You must be logged in!");
-            return;
+        ExportJob job = startTransactionsExport(Path.of(filename), ExportFormat.TEXT);
+        if (job != null) awaitAndReport(job, "Transactions", filename);
+    }
+
+    /** Blocking variant of {@link #startFinancialReport}. */
+    public void exportFinancialReport(String filename) {
+        ExportJob job = startFinancialReport(Path.of(filename));
+        if (job != null) awaitAndReport(job, "Financial report", filename);
+    }
+
+    /**
+     * Starts exporting the full transaction history to {@code file}, in the
+     * format given by its extension.
+     *
+     * @return the running job, or {@code null} if nothing is exported
+     */
+    public ExportJob startTransactionsExport(Path file) {
+        ExportFormat format;
+        try {
+            format = ExportFormat.fromFileName(file.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            return null;
         }
+        return startTransactionsExport(file, format);
+    }
 
-        List<Map<String, Object>> transactions = financeService.getTransactions();
+    public ExportJob startTransactionsExport(Path file, ExportFormat format) {
+        Session session = authService.getCurrentSession();
+        if (session == null) {
+            System.out.println("❌ You must be logged in!");
+            return null;
+        }
 
-        if (transactions.isEmpty()) {
+        long total = analyticsService.getLifetimeTotals().count();
+        if (total == 0) {
             System.out.println("No transactions to export!");
-            return;
+            return null;
         }
 
-        try (FileWriter writer = new FileWriter(filename)) {
-            // Заголовок с именем пользователя
-            writer.write("=".repeat(60) + "\n");
-            writer.write("          FINANCIAL TRANSACTIONS REPORT\n");
-            writer.write("User: " + authService.getCurrentUsername() + "\n");
-            writer.write("=".repeat(60) + "\n");
-            writer.write("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n\n");
-
-            // Таблица
-            writer.write(String.format("%-6s %-10s %-12s %-15s %-30s %s\n",
-                    "ID", "Type", "Amount", "Date", "Description", "Category"));
-            writer.write("-".repeat(80) + "\n");
-
-            double totalIncome = 0;
-            double totalExpense = 0;
-
-            for (Map<String, Object> t : transactions) {
-                String type = (String) t.get("type");
-                double amount = (double) t.get("amount");
-                String category = t.get("category") != null ? (String) t.get("category") : "-";
-
-                if (type.equals("INCOME")) totalIncome += amount;
-                else totalExpense += amount;
-
-                writer.write(String.format("%-6d %-10s $%-11.2f %-15s %-30s %s\n",
-                        (int) t.get("id"),
-                        type,
-                        amount,
-                        t.get("date").toString(),
-                        truncate((String) t.get("description"), 28),
-                        category));
+        // Only the user is captured here. The stream is opened by the export thread, so a
+        // job waiting in the queue, or one whose output cannot be opened, holds no connection.
+        int userId = session.userId();
+        String username = session.username();
+        return submit(file, total, (out, job) -> {
+            try (Stream<TransactionView> transactions = financeService.streamTransactions(userId);
+                 TransactionExporter exporter = format.open(out)) {
+                writeTransactions(exporter, job, username, transactions.iterator());
             }
+        });
+    }
 
-            // Итоги
-            writer.write("\n" + "=".repeat(60) + "\n");
-            writer.write("SUMMARY:\n");
-            writer.write(String.format("Total Income:  $%.2f\n", totalIncome));
-            writer.write(String.format("Total Expense: $%.2f\n", totalExpense));
-            writer.write(String.format("Net Balance:   $%.2f\n", totalIncome - totalExpense));
-            writer.write("=".repeat(60) + "\n");
+    /**
+     * Starts writing the overview, recent transactions and goals to {@code file}.
+     *
+     * @return the running job, or {@code null} if not logged in
+     */
+    public ExportJob startFinancialReport(Path file) {
+        Session session = authService.getCurrentSession();
+        if (session == null) {
+            System.out.println("❌ You must be logged in!");
+            return null;
+        }
 
-            System.out.println("✅ Transactions exported to " + filename);
+        String username = session.username();
+        PeriodTotals totals = analyticsService.getLifetimeTotals();
+        List<TransactionView> recent = financeService.getTransactionPage(null, RECENT_TRANSACTIONS).items();
+        List<GoalView> goals = financeService.getGoals();
+        return submit(file, recent.size() + goals.size(),
+                (out, job) -> {
+                    try (TextChannelWriter writer = new TextChannelWriter(out)) {
+                        writeFinancialReport(writer, job, username, totals, recent, goals);
+                    }
+                });
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error exporting to file: " + e.getMessage());
-        }
+    private ExportJob submit(Path file, long totalRows, ExportBody body) {
+        ExportJob job = new ExportJob(totalRows);
+        job.attach(executor.submit(() -> {
+            long started = System.currentTimeMillis();
+            // Cancelled while queued: do not open a connection or a file at all
+            if (job.isCancelled()) {
+                return new ExportJob.Result(0, 0, 0, true);
+            }
+            Path part = file.resolveSibling(file.getFileName() + ".part");
+            boolean complete = false;
+            try {
+                try (WritableByteChannel out = openOutput(part, ExportFormat.isCompressed(file.toString()))) {
+                    body.write(out, job);
+                }
+                long bytes = Files.size(part);
+                if (!job.isCancelled()) {
+                    Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    complete = true;
+                }
+                return new ExportJob.Result(job.getRowsWritten(), bytes,
+                        System.currentTimeMillis() - started, !complete);
+            } finally {
+                if (!complete) Files.deleteIfExists(part);
+            }
+        }));
+        return job;
     }
 
-    public void exportFinancialReport(String filename) {
-        if (!authService.isLoggedIn()) {
-            System.out.println("❌ You must be logged in!");
-            return;
+    private static ExecutorService newApiExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(API_WORKERS, API_WORKERS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(API_QUEUE), r -> {
+                    Thread t = new Thread(r, "api-export-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static WritableByteChannel openOutput(Path part, boolean gzip) throws IOException {
+        if (!gzip) {
+            return FileChannel.open(part,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
         }
+        return Channels.newChannel(new GZIPOutputStream(Files.newOutputStream(part), GZIP_BUFFER_BYTES));
+    }
 
-        List<Map<String, Object>> transactions = financeService.getTransactions();
-        List<Map<String, Object>> goals = financeService.getGoals();
-
-        try (FileWriter writer = new FileWriter(filename)) {
-            writer.write("=".repeat(60) + "\n");
-            writer.write("          COMPREHENSIVE FINANCIAL REPORT\n");
-            writer.write("User: " + authService.getCurrentUsername() + "\n");
-            writer.write("=".repeat(60) + "\n");
-            writer.write("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n\n");
-
-            // 1. Общая статистика
-            double totalIncome = 0;
-            double totalExpense = 0;
-            for (Map<String, Object> t : transactions) {
-                String type = (String) t.get("type");
-                double amount = (double) t.get("amount");
-                if (type.equals("INCOME")) totalIncome += amount;
-                else totalExpense += amount;
+    private void awaitAndReport(ExportJob job, String what, String filename) {
+        try {
+            ExportJob.Result result = job.await();
+            if (result.cancelled()) {
+                System.out.println("❌ Export cancelled after " + result.rows() + " rows");
+            } else {
+                System.out.println("✅ " + what + " exported to " + filename + " (" + result.rows() + " rows, "
+                        + result.bytes() + " bytes in " + result.elapsedMillis() + " ms)");
             }
+        } catch (ExecutionException e) {
+            System.err.println("Error exporting to file: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+            System.err.println("Export interrupted");
+        }
+    }
 
-            writer.write("FINANCIAL OVERVIEW:\n");
-            writer.write(String.format("Total Income:      $%.2f\n", totalIncome));
-            writer.write(String.format("Total Expenses:    $%.2f\n", totalExpense));
-            writer.write(String.format("Net Balance:       $%.2f\n", totalIncome - totalExpense));
-            writer.write(String.format("Savings Rate:      %.1f%%\n\n",
-                    totalIncome > 0 ? ((totalIncome - totalExpense) / totalIncome) * 100 : 0));
-
-            // 2. Последние транзакции
-            writer.write("RECENT TRANSACTIONS (Last 20):\n");
-            writer.write("-".repeat(60) + "\n");
-            int count = 0;
-            for (Map<String, Object> t : transactions) {
-                if (count++ >= 20) break;
-                writer.write(String.format("%s | %s | $%.2f | %s\n",
-                        t.get("date"),
-                        t.get("type"),
-                        t.get("amount"),
-                        t.get("description")));
+    private static void writeTransactions(TransactionExporter exporter, ExportJob job, String username,
+                                          Iterator<TransactionView> transactions) throws IOException {
+        exporter.begin(username);
+        try {
+            while (transactions.hasNext()) {
+                if (job.isCancelled()) return;
+                exporter.write(transactions.next());
+                job.rowWritten();
             }
+        } catch (DataAccessException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+        exporter.finish();
+    }
 
-            // 3. Цели
-            if (!goals.isEmpty()) {
-                writer.write("\nFINANCIAL GOALS:\n");
-                writer.write("-".repeat(60) + "\n");
-                for (Map<String, Object> goal : goals) {
-                    double target = (double) goal.get("target_amount");
-                    double current = (double) goal.get("current_amount");
-                    double progress = target > 0 ? (current / target) * 100 : 0;
-
-                    writer.write(String.format("%s: $%.2f/$%.2f (%.1f%%)\n",
-                            goal.get("name"), current, target, progress));
-                }
-            }
+    private static void writeFinancialReport(TextChannelWriter out, ExportJob job, String username,
+                                             PeriodTotals totals, List<TransactionView> recent,
+                                             List<GoalView> goals) throws IOException {
+        TextReportExporter.writeHeader(out, "          COMPREHENSIVE FINANCIAL REPORT", username);
 
-            writer.write("\n" + "=".repeat(60) + "\n");
-            writer.write("End of Report\n");
+        // 1. Общая статистика
+        out.append("FINANCIAL OVERVIEW:\n");
+        out.append("Total Income:      $").appendMoney(totals.income()).newLine();
+        out.append("Total Expenses:    $").appendMoney(totals.expense()).newLine();
+        out.append("Net Balance:       $").appendMoney(totals.balance()).newLine();
+        out.append("Savings Rate:      ").appendPercent(totals.savingsRate()).append("%\n\n");
 
-            System.out.println("✅ Financial report exported to " + filename);
+        // 2. Последние транзакции
+        out.append("RECENT TRANSACTIONS (Last " + RECENT_TRANSACTIONS + "):\n");
+        out.repeat('-', 60).newLine();
+        for (TransactionView t : recent) {
+            if (job.isCancelled()) return;
+            out.append(t.date()).append(" | ").append(t.type()).append(" | $").appendMoney(t.amount())
+                    .append(" | ").append(t.description()).newLine();
+            job.rowWritten();
+        }
 
-        } catch (IOException e) {
-            System.err.println("Error exporting report: " + e.getMessage());
+        // 3. Цели
+        if (!goals.isEmpty()) {
+            out.append("\nFINANCIAL GOALS:\n");
+            out.repeat('-', 60).newLine();
+            for (GoalView goal : goals) {
+                if (job.isCancelled()) return;
+                out.append(goal.name()).append(": $").appendMoney(goal.currentAmount())
+                        .append("/$").appendMoney(goal.targetAmount())
+                        .append(" (").appendPercent(goal.progressPercent()).append("%)\n");
+                job.rowWritten();
+            }
         }
-    }
 
-    private String truncate(String text, int length) {
-        if (text == null) return "";
-        return text.length() > length ? text.substring(0, length - 3) + "..." : text;
+        out.newLine().repeat('=', 60).newLine();
+        out.append("End of Report\n");
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,44 @@
 package service;
 
 import database.DatabaseConnection;
+import entity.CategoryOption;
+import entity.CategoryUsage;
+import entity.GoalView;
+import entity.Transaction;
+import entity.TransactionView;
+import repository.DataAccessException;
+import repository.JdbcStreams;
+import repository.TransactionRepository;
+
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class FinanceService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
     private final AuthService authService = new AuthService();
+    private final TransactionRepository transactionRepository = new TransactionRepository();
+    private final LedgerCache cache = LedgerCache.shared();
 
     private Integer getUserId() {
         return authService.getCurrentUserId();
     }
 
-    public void addTransaction(String type, double amount, LocalDate date, String description, Long categoryId) {
+    public boolean addTransaction(String type, long amount, LocalDate date, String description, Long categoryId) {
         Integer userId = getUserId();
         if (userId == null) {
             System.out.println("❌ You must be logged in!");
-            return;
+            return false;
+        }
+
+        // With the journal on, the row reaches SQLite on the next flush
+        TransactionJournal journal = TransactionJournal.shared();
+        if (journal != null && journal.append(userId,
+                new Transaction(null, type.toUpperCase(), amount, date, description, categoryId))) {
+            System.out.println("✅ Transaction added!");
+            return true;
         }
 
         String sql = "INSERT INTO transactions (type, amount, date, description, category_id, user_id) VALUES (?, ?, ?, ?, ?, ?)";
@@ -25,7 +47,7 @@ public class FinanceService {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, type.toUpperCase());
-            pstmt.setDouble(2, amount);
+            pstmt.setLong(2, amount);
             pstmt.setString(3, date.toString());
             pstmt.setString(4, description);
             if (categoryId != null) {
@@ -36,51 +58,149 @@ public class FinanceService {
             pstmt.setInt(6, userId);
 
             pstmt.executeUpdate();
+            cache.invalidate(userId, LedgerCache.Table.TRANSACTIONS);
             System.out.println("✅ Transaction added!");
+            return true;
         } catch (SQLException e) {
             System.err.println("Error adding transaction: " + e.getMessage());
+            return false;
         }
     }
 
-    public List<Map<String, Object>> getTransactions() {
+    /**
+     * Bulk variant of {@link #addTransaction}: all rows are inserted in one
+     * database transaction using JDBC batches of {@code batchSize}.
+     *
+     * @return generated ids in input order, or an empty list if nothing was inserted
+     */
+    public List<Long> addTransactions(Collection<Transaction> transactions, int batchSize) {
         Integer userId = getUserId();
-        if (userId == null) return new ArrayList<>();
+        if (userId == null) {
+            System.out.println("❌ You must be logged in!");
+            return new ArrayList<>();
+        }
 
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        String sql = """
-            SELECT t.id, t.type, t.amount, t.date, t.description, c.name as category
-            FROM transactions t
-            LEFT JOIN categories c ON t.category_id = c.id
-            WHERE t.user_id = ?
-            ORDER BY t.date DESC
-            LIMIT 50
-            """;
+        for (Transaction transaction : transactions) {
+            transaction.setType(transaction.getType().toUpperCase());
+        }
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        List<Long> ids = transactionRepository.saveAll(userId, transactions, batchSize);
+        if (!ids.isEmpty()) {
+            cache.invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+            System.out.println("✅ " + ids.size() + " transactions added!");
+        }
+        return ids;
+    }
+
+    public List<Long> addTransactions(Collection<Transaction> transactions) {
+        return addTransactions(transactions, TransactionRepository.DEFAULT_BATCH_SIZE);
+    }
+
+    public List<TransactionView> getTransactions() {
+        return getTransactionPage(null, DEFAULT_PAGE_SIZE).items();
+    }
+
+    /**
+     * Newest-first listing using keyset pagination: each page seeks straight to
+     * {@code (date, id) < cursor} on the (user_id, date, id) index, so page N
+     * costs the same as page 1.
+     *
+     * @param cursor {@code null} for the first page, otherwise {@link TransactionPage#nextCursor()}
+     */
+    public TransactionPage getTransactionPage(String cursor, int pageSize) {
+        Integer userId = getUserId();
+        if (userId == null) return new TransactionPage(new ArrayList<>(), null);
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        TransactionPage.Cursor after = cursor == null ? null : TransactionPage.Cursor.decode(cursor);
+        try {
+            // Category names are resolved while loading, so category changes invalidate pages too
+            return cache.get(userId, "page:" + cursor + ":" + pageSize,
+                    EnumSet.of(LedgerCache.Table.TRANSACTIONS, LedgerCache.Table.CATEGORIES),
+                    () -> loadTransactionPage(userId, after, pageSize));
+        } catch (SQLException e) {
+            System.err.println("Error getting transactions: " + e.getMessage());
+            return new TransactionPage(new ArrayList<>(), null);
+        }
+    }
+
+    private TransactionPage loadTransactionPage(int userId, TransactionPage.Cursor after, int pageSize)
+            throws SQLException {
+        CategoryTable categories = CategoryTable.forUser(userId);
+        List<TransactionView> transactions = new ArrayList<>();
+        String sql = """
+            SELECT id, type, amount, date, description, category_id
+            FROM transactions
+            WHERE user_id = ? %s
+            ORDER BY date DESC, id DESC
+            LIMIT ?
+            """.formatted(after != null ? "AND (date, id) < (?, ?)" : "");
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (after != null) {
+                pstmt.setString(index++, after.date());
+                pstmt.setLong(index++, after.id());
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(index, pageSize + 1);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Map<String, Object> transaction = new HashMap<>();
-                transaction.put("id", rs.getInt("id"));
-                transaction.put("type", rs.getString("type"));
-                transaction.put("amount", rs.getDouble("amount"));
-                transaction.put("date", rs.getString("date"));
-                transaction.put("description", rs.getString("description"));
-                transaction.put("category", rs.getString("category"));
-                transactions.add(transaction);
+                transactions.add(mapTransactionView(rs, categories));
             }
+        }
+
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions.remove(pageSize);
+            TransactionView last = transactions.get(pageSize - 1);
+            nextCursor = new TransactionPage.Cursor(last.date(), last.id()).encode();
+        }
+        return new TransactionPage(List.copyOf(transactions), nextCursor);
+    }
+
+    /**
+     * Whole history of the current user, newest first, read lazily in
+     * {@link JdbcStreams#DEFAULT_FETCH_SIZE} chunks. The user and category
+     * names are fixed when the stream is opened. The stream holds a read
+     * connection until it is closed, so use try-with-resources.
+     *
+     * @throws DataAccessException if the history cannot be read; the stream is
+     *         only empty when there is nothing to read
+     */
+    public Stream<TransactionView> streamTransactions() {
+        Integer userId = getUserId();
+        if (userId == null) return Stream.empty();
+        return streamTransactions(userId);
+    }
+
+    /** {@link #streamTransactions()} for a given user, for threads without a session. */
+    Stream<TransactionView> streamTransactions(int userId) {
+        CategoryTable categories;
+        try {
+            categories = CategoryTable.forUser(userId);
         } catch (SQLException e) {
-            System.err.println("Error getting transactions: " + e.getMessage());
+            throw new DataAccessException("Error getting transactions", e);
         }
-        return transactions;
+        String sql = """
+            SELECT id, type, amount, date, description, category_id
+            FROM transactions
+            WHERE user_id = ?
+            ORDER BY date DESC, id DESC
+            """;
+        return JdbcStreams.stream(DatabaseConnection.getReadConnection(), sql,
+                pstmt -> pstmt.setInt(1, userId), rs -> mapTransactionView(rs, categories));
     }
 
-    public void updateTransaction(int id, Double newAmount, String newDescription) {
+    public boolean updateTransaction(int id, Long newAmount, String newDescription) {
         Integer userId = getUserId();
-        if (userId == null) return;
+        if (userId == null) return false;
 
         StringBuilder sql = new StringBuilder("UPDATE transactions SET ");
         List<Object> params = new ArrayList<>();
@@ -94,7 +214,7 @@ public class FinanceService {
             params.add(newDescription);
         }
 
-        if (params.isEmpty()) return;
+        if (params.isEmpty()) return false;
 
         sql.setLength(sql.length() - 2);
         sql.append(" WHERE id = ? AND user_id = ?");
@@ -109,18 +229,21 @@ public class FinanceService {
             }
             int updated = pstmt.executeUpdate();
             if (updated > 0) {
+                cache.invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+                ColumnCache.shared().invalidate(userId);
                 System.out.println("✅ Transaction updated!");
-            } else {
-                System.out.println("❌ Transaction not found or you don't have permission!");
+                return true;
             }
+            System.out.println("❌ Transaction not found or you don't have permission!");
         } catch (SQLException e) {
             System.err.println("Error updating transaction: " + e.getMessage());
         }
+        return false;
     }
 
-    public void deleteTransaction(int id) {
+    public boolean deleteTransaction(int id) {
         Integer userId = getUserId();
-        if (userId == null) return;
+        if (userId == null) return false;
 
         String sql = "DELETE FROM transactions WHERE id = ? AND user_id = ?";
 
@@ -131,18 +254,21 @@ public class FinanceService {
             pstmt.setInt(2, userId);
             int deleted = pstmt.executeUpdate();
             if (deleted > 0) {
+                cache.invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+                ColumnCache.shared().invalidate(userId);
                 System.out.println("✅ Transaction deleted!");
-            } else {
-                System.out.println("❌ Transaction not found or you don't have permission!");
+                return true;
             }
+            System.out.println("❌ Transaction not found or you don't have permission!");
         } catch (SQLException e) {
             System.err.println("Error deleting transaction: " + e.getMessage());
         }
+        return false;
     }
 
-    public void addCategory(String name, String type) {
+    public boolean addCategory(String name, String type) {
         Integer userId = getUserId();
-        if (userId == null) return;
+        if (userId == null) return false;
 
         String sql = "INSERT INTO categories (name, type, user_id) VALUES (?, ?, ?)";
 
@@ -153,76 +279,84 @@ public class FinanceService {
             pstmt.setString(2, type.toUpperCase());
             pstmt.setInt(3, userId);
             pstmt.executeUpdate();
+            cache.invalidate(userId, LedgerCache.Table.CATEGORIES);
             System.out.println("✅ Category added!");
+            return true;
         } catch (SQLException e) {
             System.err.println("Error adding category: " + e.getMessage());
+            return false;
         }
     }
 
-    public List<Map<String, Object>> getCategories() {
+    public List<CategoryUsage> getCategories() {
         Integer userId = getUserId();
         if (userId == null) return new ArrayList<>();
 
-        List<Map<String, Object>> categories = new ArrayList<>();
-        String sql = """
-            SELECT c.*, COUNT(t.id) as usage_count
-            FROM categories c
-            LEFT JOIN transactions t ON c.id = t.category_id AND t.user_id = ?
-            WHERE c.user_id = ?
-            GROUP BY c.id
-            ORDER BY c.type, c.name
-            """;
+        try {
+            // Usage counts come from transactions, so both tables invalidate this listing
+            return cache.get(userId, "categories",
+                    EnumSet.of(LedgerCache.Table.CATEGORIES, LedgerCache.Table.TRANSACTIONS),
+                    () -> loadCategories(userId));
+        } catch (SQLException e) {
+            System.err.println("Error getting categories: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
+    private List<CategoryUsage> loadCategories(int userId) throws SQLException {
+        CategoryTable table = CategoryTable.forUser(userId);
+        Map<Long, Integer> usage = new HashMap<>();
+        // Counts come from the monthly rollup instead of joining every transaction
+        String sql = "SELECT category_id, SUM(count) FROM monthly_totals WHERE user_id = ? GROUP BY category_id";
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
-            pstmt.setInt(2, userId);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Map<String, Object> category = new HashMap<>();
-                category.put("id", rs.getInt("id"));
-                category.put("name", rs.getString("name"));
-                category.put("type", rs.getString("type"));
-                category.put("usage_count", rs.getInt("usage_count"));
-                categories.add(category);
+                usage.put(rs.getLong(1), rs.getInt(2));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting categories: " + e.getMessage());
         }
-        return categories;
+
+        List<CategoryUsage> categories = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            categories.add(new CategoryUsage((int) table.idAt(i), table.nameAt(i), table.typeAt(i),
+                    usage.getOrDefault(table.idAt(i), 0)));
+        }
+        categories.sort(Comparator.comparing(CategoryUsage::type).thenComparing(CategoryUsage::name));
+        return List.copyOf(categories);
     }
 
-    public List<Map<String, Object>> getCategoriesByType(String type) {
+    public List<CategoryOption> getCategoriesByType(String type) {
         Integer userId = getUserId();
         if (userId == null) return new ArrayList<>();
 
-        List<Map<String, Object>> categories = new ArrayList<>();
-        String sql = "SELECT id, name FROM categories WHERE type = ? AND user_id = ? ORDER BY name";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, type.toUpperCase());
-            pstmt.setInt(2, userId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Map<String, Object> category = new HashMap<>();
-                category.put("id", rs.getInt("id"));
-                category.put("name", rs.getString("name"));
-                categories.add(category);
-            }
+        try {
+            return cache.get(userId, "categories:" + type.toUpperCase(), LedgerCache.Table.CATEGORIES,
+                    () -> loadCategoriesByType(userId, type.toUpperCase()));
         } catch (SQLException e) {
             System.err.println("Error getting categories by type: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<CategoryOption> loadCategoriesByType(int userId, String type) throws SQLException {
+        CategoryTable table = CategoryTable.forUser(userId);
+        List<CategoryOption> categories = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            if (table.typeAt(i).equals(type)) {
+                categories.add(new CategoryOption((int) table.idAt(i), table.nameAt(i)));
+            }
         }
-        return categories;
+        categories.sort(Comparator.comparing(CategoryOption::name));
+        return List.copyOf(categories);
     }
 
-    public void addGoal(String name, double targetAmount, LocalDate targetDate) {
+    public boolean addGoal(String name, long targetAmount, LocalDate targetDate) {
         Integer userId = getUserId();
-        if (userId == null) return;
+        if (userId == null) return false;
 
         String sql = "INSERT INTO goals (name, target_amount, target_date, user_id) VALUES (?, ?, ?, ?)";
 
@@ -230,41 +364,62 @@ public class FinanceService {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, name);
-            pstmt.setDouble(2, targetAmount);
+            pstmt.setLong(2, targetAmount);
             pstmt.setString(3, targetDate.toString());
             pstmt.setInt(4, userId);
             pstmt.executeUpdate();
+            cache.invalidate(userId, LedgerCache.Table.GOALS);
             System.out.println("✅ Goal added!");
+            return true;
         } catch (SQLException e) {
             System.err.println("Error adding goal: " + e.getMessage());
+            return false;
         }
     }
 
-    public List<Map<String, Object>> getGoals() {
+    public List<GoalView> getGoals() {
         Integer userId = getUserId();
         if (userId == null) return new ArrayList<>();
 
-        List<Map<String, Object>> goals = new ArrayList<>();
-        String sql = "SELECT * FROM goals WHERE user_id = ? ORDER BY target_date";
+        try {
+            return cache.get(userId, "goals", LedgerCache.Table.GOALS, () -> loadGoals(userId));
+        } catch (SQLException e) {
+            System.err.println("Error getting goals: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<GoalView> loadGoals(int userId) throws SQLException {
+        List<GoalView> goals = new ArrayList<>();
+        String sql = """
+            SELECT id, name, target_amount, current_amount, target_date
+            FROM goals
+            WHERE user_id = ?
+            ORDER BY target_date
+            """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Map<String, Object> goal = new HashMap<>();
-                goal.put("id", rs.getInt("id"));
-                goal.put("name", rs.getString("name"));
-                goal.put("target_amount", rs.getDouble("target_amount"));
-                goal.put("current_amount", rs.getDouble("current_amount"));
-                goal.put("target_date", rs.getString("target_date"));
-                goals.add(goal);
+                goals.add(new GoalView(rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getString(5)));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting goals: " + e.getMessage());
         }
-        return goals;
+        return List.copyOf(goals);
+    }
+
+    // Column order follows the SELECT list of the transaction listing queries;
+    // a NULL category_id reads as 0, which resolves to no name
+    private static TransactionView mapTransactionView(ResultSet rs, CategoryTable categories) throws SQLException {
+        return new TransactionView(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getLong(3),
+                rs.getString(4),
+                rs.getString(5),
+                categories.nameOf(rs.getLong(6)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package service;
+
+import entity.Transaction;
+import importer.CategoryLookup;
+import importer.StatementFormat;
+import importer.StatementLine;
+import importer.StatementParseException;
+import importer.StatementReader;
+import repository.DataAccessException;
+import repository.TransactionRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports bank statements in a single streaming pass.
+ * <p>
+ * The calling thread parses and maps records into batches. A writer thread
+ * drains a bounded queue of batches into {@link TransactionRepository#saveAll}.
+ * When the writer falls behind, the queue fills up and the parser blocks, so
+ * at most {@code (QUEUE_CAPACITY + 2) * batchSize} rows are in memory at once.
+ * <p>
+ * Each batch commits on its own, so the single writer connection is never held
+ * for a whole statement. An import that stops early (unreadable file, failed
+ * batch, interrupt) keeps the batches already committed and is reported as
+ * failed with their exact count. There is no resume: importing the same file
+ * again inserts those rows a second time.
+ */
+public class ImportService {
+    public static final int DEFAULT_BATCH_SIZE = 2_000;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int MAX_REPORTED_ERRORS = 10;
+    private static final List<Transaction> END_OF_STATEMENT = new ArrayList<>();
+
+    private final AuthService authService = new AuthService();
+    private final TransactionRepository transactionRepository = new TransactionRepository();
+
+    /** @param failed the import stopped early; only {@code imported} rows were committed */
+    public record ImportResult(long read, long imported, long rejected, long uncategorized, long elapsedMillis,
+                               boolean failed) {}
+
+    public ImportResult importStatement(Path file) {
+        try {
+            StatementFormat format = StatementFormat.fromFileName(file.getFileName().toString());
+            return importStatement(format.open(file), DEFAULT_BATCH_SIZE);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("❌ Cannot open statement: " + e.getMessage());
+            return new ImportResult(0, 0, 0, 0, 0, true);
+        }
+    }
+
+    public ImportResult importStatement(StatementReader reader, int batchSize) {
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) {
+            System.out.println("❌ You must be logged in!");
+            closeQuietly(reader);
+            return new ImportResult(0, 0, 0, 0, 0, true);
+        }
+
+        long started = System.currentTimeMillis();
+        long read = 0, rejected = 0, uncategorized = 0;
+        boolean failed = true;
+        AtomicLong imported = new AtomicLong();
+        CategoryLookup categories;
+        try {
+            categories = new CategoryLookup(userId);
+        } catch (SQLException | DataAccessException e) {
+            System.err.println("❌ Cannot load categories: " + e.getMessage());
+            closeQuietly(reader);
+            return new ImportResult(0, 0, 0, 0, 0, true);
+        }
+
+        BlockingQueue<List<Transaction>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "statement-import-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        Future<?> writing = writer.submit(() -> {
+            while (true) {
+                List<Transaction> batch = queue.take();
+                if (batch == END_OF_STATEMENT) return null;
+                List<Long> ids = transactionRepository.saveAll(userId, batch, batch.size());
+                if (ids.size() != batch.size()) {
+                    throw new IllegalStateException("batch insert failed after " + imported.get() + " rows");
+                }
+                imported.addAndGet(ids.size());
+            }
+        });
+
+        try (reader) {
+            List<Transaction> batch = new ArrayList<>(batchSize);
+            while (true) {
+                StatementLine line;
+                try {
+                    line = reader.next();
+                } catch (StatementParseException e) {
+                    read++;
+                    if (++rejected <= MAX_REPORTED_ERRORS) {
+                        System.err.println("Skipping " + e.getMessage());
+                    }
+                    continue;
+                }
+                if (line == null) break;
+                read++;
+
+                if (line.amount() == 0) {
+                    rejected++;
+                    continue;
+                }
+                Long categoryId = categories.resolve(line.resolvedType(), line.category());
+                if (categoryId == null) uncategorized++;
+
+                batch.add(new Transaction(null, line.resolvedType(), Math.abs(line.amount()),
+                        line.date(), line.description(), categoryId));
+                if (batch.size() == batchSize) {
+                    if (!handOff(queue, batch, writing)) break;
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) handOff(queue, batch, writing);
+            handOff(queue, END_OF_STATEMENT, writing);
+            writing.get();
+            failed = false;
+        } catch (IOException e) {
+            System.err.println("❌ Failed reading statement: " + e.getMessage());
+        } catch (ExecutionException e) {
+            System.err.println("❌ Import stopped: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("❌ Import interrupted");
+        } finally {
+            stopWriter(writer);
+            if (imported.get() > 0) {
+                LedgerCache.shared().invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+            }
+        }
+
+        ImportResult result = new ImportResult(read, imported.get(), rejected, uncategorized,
+                System.currentTimeMillis() - started, failed);
+        if (failed) {
+            System.out.println("❌ Import incomplete: " + result.imported() + " transactions were committed and stay"
+                    + " imported. Importing the file again would add them twice.");
+            return result;
+        }
+        System.out.println("✅ Imported " + result.imported() + " of " + result.read() + " transactions in "
+                + result.elapsedMillis() + " ms (" + result.rejected() + " rejected, "
+                + result.uncategorized() + " without category)");
+        return result;
+    }
+
+    /** Blocks while the queue is full; returns false if the writer has stopped. */
+    private boolean handOff(BlockingQueue<List<Transaction>> queue, List<Transaction> batch,
+                            Future<?> writing) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writing.isDone()) return false;
+        }
+        return true;
+    }
+
+    // Lets a batch in flight commit or roll back first, so the reported count is exact
+    private static void stopWriter(ExecutorService writer) {
+        writer.shutdownNow();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Import writer still running; the imported count may be low");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly(StatementReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close statement: " + e.getMessage());
+        }
+    }
+}
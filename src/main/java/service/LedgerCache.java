@@ -0,0 +1,144 @@
+package service;
+
+import java.io.Serial;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-user, size-bounded cache of listing and report results, shared by the
+ * services so repeated menu actions in a session are served from memory.
+ * <p>
+ * Every cached result records the tables it was read from. Writes go to
+ * SQLite first and then call {@link #invalidate}, which drops only the
+ * results that depend on the changed table. Both the set of users and the
+ * results per user are evicted least-recently-used first.
+ * <p>
+ * Cached values are shared between callers and must not be modified once cached.
+ */
+public final class LedgerCache {
+    private static final int MAX_USERS = 16;
+    private static final int MAX_ENTRIES_PER_USER = 64;
+    private static final LedgerCache SHARED = new LedgerCache(MAX_USERS, MAX_ENTRIES_PER_USER);
+
+    /** Tables a cached result can depend on. */
+    public enum Table { TRANSACTIONS, CATEGORIES, GOALS }
+
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(Object value, Set<Table> dependsOn) {}
+
+    /** Cached results of one user; {@code version} changes on every invalidation. */
+    private final class Ledger extends LinkedHashMap<String, Entry> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private long version = 0;
+
+        private Ledger() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() <= maxEntriesPerUser) return false;
+            evictions++;
+            return true;
+        }
+    }
+
+    private final int maxEntriesPerUser;
+    private final LinkedHashMap<Integer, Ledger> ledgers;
+    private long hits, misses, evictions, invalidations;
+
+    LedgerCache(int maxUsers, int maxEntriesPerUser) {
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.ledgers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Ledger> eldest) {
+                if (size() <= maxUsers) return false;
+                evictions += eldest.getValue().size();
+                return true;
+            }
+        };
+    }
+
+    public static LedgerCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached result for {@code key}, or loads and caches it. The
+     * loader runs without holding the cache lock; its result is dropped instead
+     * of cached if the user's ledger was invalidated, evicted or dropped while
+     * it was loading. A replacement ledger also starts at version 0, so the
+     * instance is compared as well as the version.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(int userId, String key, Set<Table> dependsOn, Loader<T> loader) throws SQLException {
+        Ledger ledger;
+        long version;
+        synchronized (this) {
+            ledger = ledgers.computeIfAbsent(userId, id -> new Ledger());
+            Entry entry = ledger.get(key);
+            if (entry != null) {
+                hits++;
+                return (T) entry.value();
+            }
+            misses++;
+            version = ledger.version;
+        }
+
+        T value = loader.load();
+
+        synchronized (this) {
+            if (ledgers.get(userId) == ledger && ledger.version == version) {
+                ledger.put(key, new Entry(value, dependsOn));
+            }
+        }
+        return value;
+    }
+
+    <T> T get(int userId, String key, Table dependsOn, Loader<T> loader) throws SQLException {
+        return get(userId, key, EnumSet.of(dependsOn), loader);
+    }
+
+    /** Drops the user's cached results that were read from {@code table}. */
+    public synchronized void invalidate(int userId, Table table) {
+        Ledger ledger = ledgers.get(userId);
+        if (ledger == null) return;
+
+        ledger.version++;
+        Iterator<Entry> entries = ledger.values().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().dependsOn().contains(table)) {
+                entries.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void invalidateAll(int userId) {
+        Ledger ledger = ledgers.remove(userId);
+        if (ledger != null) {
+            invalidations += ledger.size();
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, invalidations);
+    }
+}
@@ -0,0 +1,122 @@
+package service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credentials that logged in successfully in the last few minutes, so a
+ * client that sends the same credentials with every request (HTTP Basic) pays
+ * for one PBKDF2 verification instead of one per request.
+ * <p>
+ * Entries are keyed by a salted SHA-256 of username and password, never the
+ * password itself; the salt is random per process. A wrong password never
+ * matches an entry, so it still goes through the rate limiter and the full
+ * hash. Concurrent logins with the same credentials share one verification,
+ * so a burst of requests from a client that is not cached yet costs one hash
+ * and one rate-limit token, not one each.
+ */
+final class RecentLoginCache {
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final RecentLoginCache SHARED = new RecentLoginCache(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+
+    private record Entry(Session session, long expiresAt) {}
+
+    /** The actual credential check; returns {@code null} for wrong credentials. */
+    @FunctionalInterface
+    interface Verifier {
+        Session verify() throws SQLException;
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final byte[] salt = new byte[16];
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Session>> inFlight = new ConcurrentHashMap<>();
+
+    RecentLoginCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        new SecureRandom().nextBytes(salt);
+    }
+
+    static RecentLoginCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the session of a recent login with exactly these credentials, or
+     * runs {@code verifier} and caches a successful result. Callers arriving
+     * while the same credentials are being verified wait for that result.
+     */
+    Session get(String username, String password, Verifier verifier) throws SQLException {
+        String key = key(username, password);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() - System.nanoTime() >= 0) return entry.session();
+            entries.remove(key, entry);
+        }
+
+        CompletableFuture<Session> mine = new CompletableFuture<>();
+        CompletableFuture<Session> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Session session = verifier.verify();
+            if (session != null) put(key, session);
+            mine.complete(session);
+            return session;
+        } catch (SQLException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void put(String key, Session session) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.expiresAt() - now < 0);
+            // Still full: skip caching rather than grow; those logins just hash again
+            if (entries.size() >= maxEntries) return;
+        }
+        entries.put(key, new Entry(session, now + ttlNanos));
+    }
+
+    private static Session await(CompletableFuture<Session> running) throws SQLException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) throw sqlException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw e;
+        }
+    }
+
+    private String key(String username, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] name = username.getBytes(StandardCharsets.UTF_8);
+            digest.update(salt);
+            // Length prefix, so no other username/password split yields the same bytes
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(name.length).array());
+            digest.update(name);
+            digest.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
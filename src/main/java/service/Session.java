@@ -0,0 +1,4 @@
+package service;
+
+/** A logged-in user. Immutable, so it can be shared across threads. */
+public record Session(int userId, String username) {}
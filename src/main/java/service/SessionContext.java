@@ -0,0 +1,79 @@
+package service;
+
+/**
+ * Login state of one client: the console, or one API session.
+ * <p>
+ * Services keep no user state of their own. Every call reads the context
+ * bound to the calling thread through {@link #current()}. Threads without a
+ * binding share the process-wide {@link #console()} context, which is what the
+ * single-user console uses. Server code binds a separate context around each
+ * request with {@link #bind}, so concurrent requests of different users never
+ * see each other's session. Work handed to other threads must capture the
+ * user id first, as the import and export services do.
+ */
+public final class SessionContext {
+    private static final SessionContext CONSOLE = new SessionContext();
+    private static final ThreadLocal<SessionContext> BOUND = new ThreadLocal<>();
+
+    /** Restores the previous binding when closed. */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private volatile Session session;
+    private volatile String token;
+
+    public SessionContext() {
+    }
+
+    public SessionContext(Session session) {
+        this.session = session;
+    }
+
+    /** A context resumed from a {@link SessionStore} token. */
+    public SessionContext(Session session, String token) {
+        this.session = session;
+        this.token = token;
+    }
+
+    /** The context bound to the calling thread, or the console context. */
+    public static SessionContext current() {
+        SessionContext bound = BOUND.get();
+        return bound != null ? bound : CONSOLE;
+    }
+
+    public static SessionContext console() {
+        return CONSOLE;
+    }
+
+    /**
+     * Makes {@code context} current on the calling thread until the returned
+     * scope is closed; use try-with-resources.
+     */
+    public static Scope bind(SessionContext context) {
+        SessionContext previous = BOUND.get();
+        BOUND.set(context);
+        return () -> {
+            if (previous == null) BOUND.remove();
+            else BOUND.set(previous);
+        };
+    }
+
+    /** @return the logged-in user, or {@code null} */
+    public Session getSession() {
+        return session;
+    }
+
+    /** @return the session token issued at login, or {@code null} */
+    public String getToken() {
+        return token;
+    }
+
+    // Only AuthService logs users in and out
+    void setSession(Session session, String token) {
+        this.session = session;
+        this.token = token;
+    }
+}
@@ -0,0 +1,253 @@
+package service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opaque session tokens issued at login, so later calls are authorized by
+ * one in-memory map lookup instead of a {@code users} query and a password
+ * hash.
+ * <p>
+ * A token is 32 random bytes, Base64url-encoded. Only its SHA-256 is kept,
+ * in memory and in the snapshot, so neither can be replayed as a token.
+ * Sessions expire after {@link #DEFAULT_TTL_MILLIS} without use. Each use
+ * past the halfway point pushes the expiry out again. At
+ * {@link #DEFAULT_MAX_SESSIONS} the session closest to expiry makes room
+ * for a new one.
+ * <p>
+ * With {@code -Dcashier.sessions=<file>}, sessions are loaded at startup,
+ * written every {@link #SNAPSHOT_INTERVAL_MILLIS} while they change, and
+ * written once more on shutdown, so they survive restarts.
+ *
+ * <pre>
+ * snapshot: magic:int version:int count:int
+ * session:  tokenHash:32 bytes userId:int expiresAt:long (epoch ms) username:UTF
+ * </pre>
+ */
+public final class SessionStore {
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+    public static final long SNAPSHOT_INTERVAL_MILLIS = 60_000;
+
+    private static final int MAGIC = 0x43534853; // "CSHS"
+    private static final int VERSION = 1;
+    private static final int TOKEN_BYTES = 32;
+    private static final int HASH_BYTES = 32;
+    // Longer strings cannot be a token; rejected before hashing
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final SessionStore SHARED = new SessionStore(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SESSIONS);
+
+    // Guarded by SessionStore.class
+    private static ScheduledExecutorService snapshotter = null;
+    private static Path snapshotFile = null;
+
+    private record Entry(Session session, long expiresAt) {}
+
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final ConcurrentHashMap<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public SessionStore(long ttlMillis, int maxSessions) {
+        if (ttlMillis < 1 || maxSessions < 1) {
+            throw new IllegalArgumentException("TTL and max sessions must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+    }
+
+    public static SessionStore shared() {
+        return SHARED;
+    }
+
+    /**
+     * Loads the snapshot named by {@code cashier.sessions}, if set, and starts
+     * writing it periodically.
+     */
+    public static synchronized void startConfigured() {
+        String file = System.getProperty("cashier.sessions");
+        if (file == null || snapshotter != null) return;
+
+        snapshotFile = Path.of(file);
+        try {
+            int restored = SHARED.load(snapshotFile);
+            if (restored > 0) {
+                System.out.println("✅ Restored " + restored + " session(s)");
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Session snapshot ignored: " + e.getMessage());
+        }
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotter.scheduleWithFixedDelay(() -> saveShared(false),
+                SNAPSHOT_INTERVAL_MILLIS, SNAPSHOT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops the periodic snapshot and writes a final one. */
+    public static synchronized void closeShared() {
+        if (snapshotter == null) return;
+        snapshotter.shutdown();
+        snapshotter = null;
+        saveShared(true);
+    }
+
+    private static synchronized void saveShared(boolean force) {
+        if (snapshotFile == null || !(SHARED.dirty.getAndSet(false) || force)) return;
+        try {
+            SHARED.save(snapshotFile);
+        } catch (IOException e) {
+            SHARED.dirty.set(true);
+            System.err.println("Error writing session snapshot: " + e.getMessage());
+        }
+    }
+
+    /** Starts a session for {@code session}'s user and returns its new token. */
+    public String issue(Session session) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+
+        long now = System.currentTimeMillis();
+        if (sessions.size() >= maxSessions) {
+            makeRoom(now);
+        }
+        sessions.put(hash(token), new Entry(session, now + ttlMillis));
+        dirty.set(true);
+        return token;
+    }
+
+    /** @return the session of a live token, or {@code null} for unknown or expired tokens */
+    public Session lookup(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) return null;
+
+        String key = hash(token);
+        Entry entry = sessions.get(key);
+        if (entry == null) return null;
+
+        long now = System.currentTimeMillis();
+        long remaining = entry.expiresAt() - now;
+        if (remaining <= 0) {
+            sessions.remove(key, entry);
+            return null;
+        }
+        // Extended at most once per half TTL, so busy sessions do not write on every call
+        if (remaining < ttlMillis / 2 && sessions.replace(key, entry, new Entry(entry.session(), now + ttlMillis))) {
+            dirty.set(true);
+        }
+        return entry.session();
+    }
+
+    public void revoke(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) return;
+        if (sessions.remove(hash(token)) != null) {
+            dirty.set(true);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /** Writes all live sessions to {@code file}, replacing it atomically. */
+    public void save(Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            List<Map.Entry<String, Entry>> live = sessions.entrySet().stream()
+                    .filter(e -> e.getValue().expiresAt() > now)
+                    .toList();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(live.size());
+            for (Map.Entry<String, Entry> e : live) {
+                Entry entry = e.getValue();
+                out.write(Base64.getUrlDecoder().decode(e.getKey()));
+                out.writeInt(entry.session().userId());
+                out.writeLong(entry.expiresAt());
+                out.writeUTF(entry.session().username());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the unexpired sessions stored in {@code file}; a missing file is
+     * an empty snapshot.
+     *
+     * @return number of sessions restored
+     */
+    public int load(Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a session snapshot: " + file);
+            }
+            int count = in.readInt();
+            byte[] tokenHash = new byte[HASH_BYTES];
+            for (int i = 0; i < count; i++) {
+                in.readFully(tokenHash);
+                int userId = in.readInt();
+                long expiresAt = in.readLong();
+                String username = in.readUTF();
+                if (expiresAt <= now || sessions.size() >= maxSessions) continue;
+                sessions.putIfAbsent(encode(tokenHash), new Entry(new Session(userId, username), expiresAt));
+                restored++;
+            }
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        return restored;
+    }
+
+    private void makeRoom(long now) {
+        sessions.values().removeIf(entry -> entry.expiresAt() <= now);
+        while (sessions.size() >= maxSessions) {
+            Map.Entry<String, Entry> oldest = null;
+            for (Map.Entry<String, Entry> e : sessions.entrySet()) {
+                if (oldest == null || e.getValue().expiresAt() < oldest.getValue().expiresAt()) {
+                    oldest = e;
+                }
+            }
+            if (oldest == null) return;
+            sessions.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            return encode(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,499 @@
+package service;
+
+import database.DatabaseConnection;
+import entity.Transaction;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * Optional write-ahead journal for single transaction inserts.
+ * <p>
+ * {@link #append} writes a fixed-width record into a memory-mapped ring file
+ * and returns without touching SQLite. A daemon flusher drains the ring into
+ * the transactions table in batches and stores the last applied sequence in
+ * {@code journal_state} within the same database transaction. On startup,
+ * records after that sequence are replayed, so nothing is lost or inserted
+ * twice. Records survive a JVM crash as soon as they are appended; the mapped
+ * pages are forced to disk before each batch is flushed.
+ * <p>
+ * Journaled rows become visible to queries once flushed, normally within
+ * {@link #FLUSH_INTERVAL_MILLIS}. Enabled with {@code -Dcashier.journal=<file>}.
+ *
+ * <pre>
+ * header (256 bytes): magic:int version:int recordBytes:int capacity:int journalId:long
+ * record (256 bytes): sequence:long crc:int userId:int amount:long categoryId:long
+ *                     epochDay:int type:byte pad:byte descriptionLength:short description:216 bytes
+ * </pre>
+ */
+public final class TransactionJournal implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+    public static final long FLUSH_INTERVAL_MILLIS = 100;
+    public static final int MAX_BATCH = 2_000;
+
+    private static final int MAGIC = 0x43534A4C; // "CSJL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 256;
+    private static final int RECORD_BYTES = 256;
+    private static final int DESCRIPTION_OFFSET = 40;
+    private static final int MAX_DESCRIPTION_BYTES = RECORD_BYTES - DESCRIPTION_OFFSET;
+    private static final short NULL_DESCRIPTION = -1;
+
+    private static TransactionJournal shared = null;
+
+    private record Entry(long sequence, int userId, Transaction transaction) {}
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int capacity;
+    private final long journalId;
+    private final Thread flusher;
+    private final Object drainLock = new Object();
+    private final CRC32 appendCrc = new CRC32();
+
+    // Guarded by this
+    private long nextSequence;
+    private long appliedSequence;
+    private boolean closed = false;
+
+    private TransactionJournal(FileChannel channel, MappedByteBuffer map, int capacity, long journalId,
+                               long appliedSequence, long nextSequence) {
+        this.channel = channel;
+        this.map = map;
+        this.capacity = capacity;
+        this.journalId = journalId;
+        this.appliedSequence = appliedSequence;
+        this.nextSequence = nextSequence;
+        this.flusher = new Thread(this::runFlusher, "transaction-journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /** The journal started by {@link #startConfigured()}, or {@code null} if journaling is off. */
+    public static synchronized TransactionJournal shared() {
+        return shared;
+    }
+
+    /**
+     * Opens the journal named by {@code cashier.journal}, replays anything not
+     * yet in SQLite and starts the flusher. Call after the schema is migrated.
+     */
+    public static synchronized void startConfigured() {
+        String file = System.getProperty("cashier.journal");
+        if (file == null || shared != null) return;
+        try {
+            shared = open(Path.of(file), DEFAULT_CAPACITY);
+        } catch (IOException | SQLException e) {
+            System.err.println("❌ Transaction journal disabled: " + e.getMessage());
+        }
+    }
+
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /**
+     * Maps {@code file}, creating it with room for {@code capacity} records if
+     * it is new, and replays pending records into SQLite before returning.
+     * The file stays exclusively locked until {@link #close()}.
+     *
+     * @throws IOException if another process or another journal in this one has the file open
+     */
+    public static TransactionJournal open(Path file, int capacity) throws IOException, SQLException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Two owners would both replay the pending range and append into the same ring
+            try {
+                if (channel.tryLock() == null) {
+                    throw new IOException("Journal " + file + " is in use by another process");
+                }
+            } catch (OverlappingFileLockException e) {
+                throw new IOException("Journal " + file + " is already open in this process");
+            }
+            boolean created = channel.size() == 0;
+            long journalId;
+            if (created) {
+                journalId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_BYTES) {
+                    throw new IOException("Not a transaction journal: " + file);
+                }
+                capacity = header.getInt(12);
+                journalId = header.getLong(16);
+            }
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            if (created) {
+                map.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_BYTES).putInt(12, capacity);
+                map.putLong(16, journalId);
+                map.force();
+            }
+
+            long applied = loadAppliedSequence(journalId);
+            long next = findNextSequence(map, capacity, applied);
+            TransactionJournal journal = new TransactionJournal(channel, map, capacity, journalId, applied, next);
+            journal.flusher.start();
+
+            if (next - 1 > applied) {
+                journal.flush();
+                System.out.println("✅ Journal replayed " + (next - 1 - applied) + " pending transaction(s)");
+            }
+            return journal;
+        } catch (IOException | SQLException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Journals a new transaction of {@code userId}. Blocks only while the ring
+     * is full of records the flusher has not applied yet.
+     *
+     * @return {@code false} if the record does not fit the fixed width (long
+     *         description, unknown type) or the journal is closed; the caller
+     *         should insert it directly
+     */
+    public boolean append(int userId, Transaction transaction) {
+        byte type;
+        switch (transaction.getType()) {
+            case "INCOME" -> type = 0;
+            case "EXPENSE" -> type = 1;
+            default -> { return false; }
+        }
+        byte[] description = transaction.getDescription() == null
+                ? null : transaction.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (description != null && description.length > MAX_DESCRIPTION_BYTES) return false;
+
+        synchronized (this) {
+            try {
+                while (!closed && nextSequence - appliedSequence > capacity) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (closed) return false;
+
+            long sequence = nextSequence++;
+            int offset = offsetOf(sequence);
+            map.putLong(offset, sequence);
+            map.putInt(offset + 12, userId);
+            map.putLong(offset + 16, transaction.getAmount());
+            map.putLong(offset + 24, transaction.getCategoryId() != null ? transaction.getCategoryId() : 0);
+            map.putInt(offset + 32, (int) transaction.getDate().toEpochDay());
+            map.put(offset + 36, type);
+            map.put(offset + 37, (byte) 0);
+            if (description == null) {
+                map.putShort(offset + 38, NULL_DESCRIPTION);
+            } else {
+                map.putShort(offset + 38, (short) description.length);
+                map.put(offset + DESCRIPTION_OFFSET, description);
+            }
+            map.putInt(offset + 8, checksum(map, offset, appendCrc));
+
+            long pending = nextSequence - 1 - appliedSequence;
+            if (pending == 1 || pending == MAX_BATCH) {
+                notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /** Records appended but not yet in SQLite. */
+    public synchronized long getPendingCount() {
+        return nextSequence - 1 - appliedSequence;
+    }
+
+    /** Blocks until everything appended so far is in SQLite. */
+    public void flush() {
+        long target;
+        synchronized (this) {
+            target = nextSequence - 1;
+        }
+        while (true) {
+            synchronized (this) {
+                if (appliedSequence >= target) return;
+            }
+            if (drain() == 0) {
+                // The last batch failed; the flusher retries it on its next round
+                return;
+            }
+        }
+    }
+
+    /** Flushes pending records and stops the flusher. Unflushed records stay in the file for replay. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    while (!closed && pendingLocked() == 0) {
+                        wait();
+                    }
+                    // Let a burst of appends accumulate into one database transaction
+                    if (!closed && pendingLocked() < MAX_BATCH) {
+                        wait(FLUSH_INTERVAL_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed && pendingLocked() == 0) return;
+            }
+            if (drain() == 0) {
+                synchronized (this) {
+                    if (closed) return;
+                }
+                pause();
+            }
+        }
+    }
+
+    /** Applies one batch; returns the number of records applied. */
+    private int drain() {
+        synchronized (drainLock) {
+            List<Entry> entries = new ArrayList<>();
+            try {
+                synchronized (this) {
+                    long to = Math.min(nextSequence - 1, appliedSequence + MAX_BATCH);
+                    CRC32 crc = new CRC32();
+                    for (long sequence = appliedSequence + 1; sequence <= to; sequence++) {
+                        entries.add(read(sequence, crc));
+                    }
+                }
+                if (entries.isEmpty()) return 0;
+
+                map.force();
+                entries = entries.subList(0, apply(entries));
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Error flushing journal: " + e.getMessage());
+                return 0;
+            }
+
+            Set<Integer> users = new HashSet<>();
+            for (Entry entry : entries) {
+                users.add(entry.userId());
+            }
+            synchronized (this) {
+                appliedSequence = entries.get(entries.size() - 1).sequence();
+                notifyAll();
+            }
+            for (int userId : users) {
+                LedgerCache.shared().invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+            }
+            return entries.size();
+        }
+    }
+
+    /**
+     * Inserts a batch, or as much of it as can be committed.
+     *
+     * @return how many leading entries are now applied; the rest stay in the
+     *         journal for the next drain
+     * @throws SQLException if nothing could be applied, e.g. the database is
+     *         busy, full or failing I/O
+     */
+    private int apply(List<Entry> entries) throws SQLException {
+        String sql = "INSERT INTO transactions (type, amount, date, description, category_id, user_id) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Entry entry : entries) {
+                    bind(pstmt, entry, entry.transaction().getCategoryId());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                saveAppliedSequence(conn, entries.get(entries.size() - 1).sequence());
+                conn.commit();
+                return entries.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                // Anything but a bad row is retried as a whole on the next drain
+                if (!isConstraintViolation(e)) throw e;
+            }
+
+            // One bad row must not block the journal: retry row by row
+            int applied = 0;
+            for (Entry entry : entries) {
+                try {
+                    applyOne(conn, sql, entry);
+                } catch (SQLException e) {
+                    if (applied == 0) throw e;
+                    System.err.println("Error flushing journal: " + e.getMessage());
+                    return applied;
+                }
+                applied++;
+            }
+            return applied;
+        }
+    }
+
+    // A category deleted after the append gets the same treatment as
+    // ON DELETE SET NULL; a row that still violates a constraint (e.g. deleted
+    // user) is dropped. Any other failure is thrown and the row is kept.
+    private void applyOne(Connection conn, String sql, Entry entry) throws SQLException {
+        Long categoryId = entry.transaction().getCategoryId();
+        for (Long category : categoryId != null ? new Long[]{categoryId, null} : new Long[]{null}) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                bind(pstmt, entry, category);
+                pstmt.executeUpdate();
+                saveAppliedSequence(conn, entry.sequence());
+                conn.commit();
+                return;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (!isConstraintViolation(e)) throw e;
+                if (category == null) {
+                    System.err.println("Dropping journal record " + entry.sequence() + ": " + e.getMessage());
+                }
+            }
+        }
+        saveAppliedSequence(conn, entry.sequence());
+        conn.commit();
+    }
+
+    // SQLITE_CONSTRAINT and its extended codes (FOREIGNKEY, NOTNULL, CHECK, ...)
+    private static boolean isConstraintViolation(SQLException e) {
+        return e instanceof SQLiteException sqlite
+                && sqlite.getResultCode().name().startsWith(SQLiteErrorCode.SQLITE_CONSTRAINT.name());
+    }
+
+    private static void bind(PreparedStatement pstmt, Entry entry, Long categoryId) throws SQLException {
+        Transaction t = entry.transaction();
+        pstmt.setString(1, t.getType());
+        pstmt.setLong(2, t.getAmount());
+        pstmt.setString(3, t.getDate().toString());
+        pstmt.setString(4, t.getDescription());
+        if (categoryId != null) {
+            pstmt.setLong(5, categoryId);
+        } else {
+            pstmt.setNull(5, Types.INTEGER);
+        }
+        pstmt.setInt(6, entry.userId());
+    }
+
+    private void saveAppliedSequence(Connection conn, long sequence) throws SQLException {
+        String sql = """
+            INSERT INTO journal_state (journal_id, applied_sequence) VALUES (?, ?)
+            ON CONFLICT (journal_id) DO UPDATE SET applied_sequence = excluded.applied_sequence
+            """;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, journalId);
+            pstmt.setLong(2, sequence);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static long loadAppliedSequence(long journalId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT applied_sequence FROM journal_state WHERE journal_id = ?")) {
+                pstmt.setLong(1, journalId);
+                ResultSet rs = pstmt.executeQuery();
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * First free sequence: one past the longest run of valid records that
+     * continues from {@code applied}. A torn or stale slot ends the run.
+     */
+    private static long findNextSequence(MappedByteBuffer map, int capacity, long applied) {
+        CRC32 crc = new CRC32();
+        long sequence = applied + 1;
+        for (int i = 0; i < capacity; i++, sequence++) {
+            int offset = HEADER_BYTES + (int) ((sequence - 1) % capacity) * RECORD_BYTES;
+            if (map.getLong(offset) != sequence || map.getInt(offset + 8) != checksum(map, offset, crc)) break;
+        }
+        return sequence;
+    }
+
+    private Entry read(long sequence, CRC32 crc) {
+        int offset = offsetOf(sequence);
+        if (map.getLong(offset) != sequence || map.getInt(offset + 8) != checksum(map, offset, crc)) {
+            throw new IllegalStateException("Corrupt journal record " + sequence);
+        }
+        long categoryId = map.getLong(offset + 24);
+        short length = map.getShort(offset + 38);
+        String description = null;
+        if (length != NULL_DESCRIPTION) {
+            byte[] bytes = new byte[length];
+            map.get(offset + DESCRIPTION_OFFSET, bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+        }
+        Transaction transaction = new Transaction(null,
+                map.get(offset + 36) == 0 ? "INCOME" : "EXPENSE",
+                map.getLong(offset + 16),
+                LocalDate.ofEpochDay(map.getInt(offset + 32)),
+                description,
+                categoryId != 0 ? categoryId : null);
+        return new Entry(sequence, map.getInt(offset + 12), transaction);
+    }
+
+    private int offsetOf(long sequence) {
+        return HEADER_BYTES + (int) ((sequence - 1) % capacity) * RECORD_BYTES;
+    }
+
+    // Covers the sequence and every field after the checksum itself
+    private static int checksum(MappedByteBuffer map, int offset, CRC32 crc) {
+        crc.reset();
+        crc.update(map.slice(offset, 8));
+        crc.update(map.slice(offset + 12, RECORD_BYTES - 12));
+        return (int) crc.getValue();
+    }
+
+    private long pendingLocked() {
+        return nextSequence - 1 - appliedSequence;
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(FLUSH_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package service;
+
+import entity.TransactionView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated transaction listing.
+ *
+ * @param nextCursor opaque token for the following page, or {@code null} on the last page
+ */
+public record TransactionPage(List<TransactionView> items, String nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /** Position after the last row of a page: rows strictly older in (date, id) order come next. */
+    record Cursor(String date, long id) {
+
+        String encode() {
+            String raw = date + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf(':');
+                String date = raw.substring(0, sep);
+                LocalDate.parse(date);
+                return new Cursor(date, Long.parseLong(raw.substring(sep + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid page cursor: " + token);
+            }
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package service;
 
+import analytics.ParallelReportEngine;
+import analytics.ParallelReportEngine.ReportRow;
+import entity.DateRange;
+import entity.PeriodTotals;
 import entity.Transaction;
 import repository.TransactionRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TransactionService {
     private final TransactionRepository transactionRepository = new TransactionRepository();
-
-    public void addTransaction(String type, Double amount, LocalDate date, String description, Long categoryId) {
+    private final AuthService authService = new AuthService();
+    private final ParallelReportEngine reportEngine = new ParallelReportEngine();
+
+    /** @return {@code false} if nobody is logged in or the row could not be saved */
+    public boolean addTransaction(String type, long amount, LocalDate date, String description, Long categoryId) {
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) {
+            System.out.println("❌ You must be logged in!");
+            return false;
+        }
         if (amount <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
         if (!type.equals("INCOME") && !type.equals("EXPENSE")) {
             throw new IllegalArgumentException("Type must be 'INCOME' or 'EXPENSE'");
         }
+        // category_id is not tied to the owner by the schema, so another user's category is refused here
+        if (categoryId != null && !ownsCategory(userId, categoryId)) {
+            throw new IllegalArgumentException("Unknown category: " + categoryId);
+        }
 
         Transaction transaction = new Transaction();
         transaction.setType(type);
@@ -24,39 +43,63 @@ public class TransactionService {
         transaction.setDescription(description);
         transaction.setCategoryId(categoryId);
 
-        transactionRepository.save(transaction);
+        transactionRepository.save(userId, transaction);
+        if (transaction.getId() == null) return false;
+
+        LedgerCache.shared().invalidate(userId, LedgerCache.Table.TRANSACTIONS);
+        return true;
+    }
+
+    private boolean ownsCategory(int userId, long categoryId) {
+        try {
+            return CategoryTable.forUser(userId).get(categoryId) != null;
+        } catch (SQLException e) {
+            System.err.println("Error finding category: " + e.getMessage());
+            return false;
+        }
     }
 
     public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return new ArrayList<>();
+        return transactionRepository.findAll(userId);
     }
 
     public List<Transaction> getTransactionsByMonth(int year, int month) {
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-        return transactionRepository.findByDateRange(startDate, endDate);
-    }
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return new ArrayList<>();
 
-    public Double getBalanceForMonth(int year, int month) {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        return transactionRepository.findByDateRange(userId, startDate, endDate);
+    }
 
-        Double totalIncome = transactionRepository.getTotalByTypeAndPeriod("INCOME", startDate, endDate);
-        Double totalExpense = transactionRepository.getTotalByTypeAndPeriod("EXPENSE", startDate, endDate);
+    public long getBalanceForMonth(int year, int month) {
+        return getMonthTotals(year, month).balance();
+    }
 
-        return (totalIncome != null ? totalIncome : 0.0) - (totalExpense != null ? totalExpense : 0.0);
+    /**
+     * Per-month, per-category totals of the current user for {@code [from, to]},
+     * aggregated in parallel partitions instead of one query per month.
+     */
+    public List<ReportRow> getMonthlyCategoryReport(YearMonth from, YearMonth to) {
+        Integer userId = authService.getCurrentUserId();
+        if (userId == null) return new ArrayList<>();
+
+        try {
+            return reportEngine.monthlyByCategory(userId, from, to);
+        } catch (SQLException e) {
+            System.err.println("Error building report: " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
 
     // Бизнес-логика: Анализ расходов
     public void analyzeExpenses(int year, int month) {
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        PeriodTotals totals = getMonthTotals(year, month);
 
-        Double totalExpenses = transactionRepository.getTotalByTypeAndPeriod("EXPENSE", startDate, endDate);
-        Double totalIncome = transactionRepository.getTotalByTypeAndPeriod("INCOME", startDate, endDate);
-
-        if (totalExpenses != null && totalExpenses > 0 && totalIncome != null && totalIncome > 0) {
-            double expenseRatio = (totalExpenses / totalIncome) * 100;
+        if (totals.expense() > 0 && totals.income() > 0) {
+            double expenseRatio = totals.expenseRatio();
             System.out.printf("Expense to Income Ratio: %.2f%%\n", expenseRatio);
 
             if (expenseRatio > 80) {
@@ -68,6 +111,19 @@ public class TransactionService {
         }
     }
 
+    // Income and expense of the current user for one month in a single query
+    private PeriodTotals getMonthTotals(int year, int month) {
+        DateRange period = DateRange.ofMonth(year, month);
+        Integer userId = authService.getCurrentUserId();
+        if (userId != null) {
+            List<PeriodTotals> totals = transactionRepository.totalsByPeriods(userId, List.of(period));
+            if (!totals.isEmpty()) {
+                return totals.get(0);
+            }
+        }
+        return new PeriodTotals(period, 0, 0, 0, 0, 0);
+    }
+
     // Бизнес-логика: Прогноз накоплений
     public void calculateSavingsForecast(double monthlyIncome, double monthlyExpense, int months) {
         double monthlySavings = monthlyIncome - monthlyExpense;
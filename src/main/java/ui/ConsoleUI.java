@@ -1,19 +1,35 @@
 package ui;
 
+import entity.CategoryOption;
+import entity.CategoryUsage;
+import entity.GoalView;
+import entity.Money;
+import entity.TransactionView;
+import export.ExportJob;
+import repository.DataAccessException;
 import service.AuthService;
 import service.FinanceService;
 import service.ExportService;
 import service.AnalyticsService;
+import service.ImportService;
+import service.TransactionPage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 public class ConsoleUI {
+    private static final long EXPORT_PROGRESS_MILLIS = 500;
+
     private final Scanner scanner = new Scanner(System.in);
     private final AuthService authService = new AuthService();
     private final FinanceService financeService = new FinanceService();
     private final ExportService exportService = new ExportService();
     private final AnalyticsService analyticsService = new AnalyticsService();
+    private final ImportService importService = new ImportService();
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     public void start() {
@@ -24,7 +40,11 @@ public class ConsoleUI {
 
         // Показываем меню авторизации
         while (!authService.isLoggedIn()) {
-            showAuthMenu();
+            try {
+                showAuthMenu();
+            } catch (DataAccessException e) {
+                System.out.println("❌ Database unavailable: " + e.getMessage());
+            }
         }
 
         // Главное меню после входа
@@ -32,22 +52,27 @@ public class ConsoleUI {
             showMainMenu();
             String choice = scanner.nextLine();
 
-            switch (choice) {
-                case "1" -> showTransactionMenu();
-                case "2" -> showCategoryMenu();
-                case "3" -> showGoalMenu();
-                case "4" -> showAnalyticsMenu();
-                case "5" -> showExportMenu();
-                case "9" -> {
-                    authService.logout();
-                    System.out.println("Goodbye!");
-                    return;
-                }
-                case "0" -> {
-                    System.out.println("Goodbye!");
-                    return;
+            // A pool timeout ends the current action, not the session
+            try {
+                switch (choice) {
+                    case "1" -> showTransactionMenu();
+                    case "2" -> showCategoryMenu();
+                    case "3" -> showGoalMenu();
+                    case "4" -> showAnalyticsMenu();
+                    case "5" -> showExportMenu();
+                    case "9" -> {
+                        authService.logout();
+                        System.out.println("Goodbye!");
+                        return;
+                    }
+                    case "0" -> {
+                        System.out.println("Goodbye!");
+                        return;
+                    }
+                    default -> System.out.println("Invalid choice!");
                 }
-                default -> System.out.println("Invalid choice!");
+            } catch (DataAccessException e) {
+                System.out.println("❌ Database unavailable: " + e.getMessage());
             }
 
             pause();
@@ -130,7 +155,8 @@ public class ConsoleUI {
             System.out.println("2. 📋 View all transactions");
             System.out.println("3. ✏️  Edit transaction");
             System.out.println("4. 🗑️  Delete transaction");
-            System.out.println("5. 🔙 Back");
+            System.out.println("5. 📥 Import bank statement (CSV/OFX/QIF)");
+            System.out.println("6. 🔙 Back");
             System.out.print("Choice: ");
 
             String choice = scanner.nextLine();
@@ -139,7 +165,8 @@ public class ConsoleUI {
                 case "2" -> viewTransactions();
                 case "3" -> editTransaction();
                 case "4" -> deleteTransaction();
-                case "5" -> { return; }
+                case "5" -> importStatement();
+                case "6" -> { return; }
                 default -> System.out.println("Invalid choice!");
             }
         }
@@ -156,9 +183,9 @@ public class ConsoleUI {
         }
 
         System.out.print("Amount: ");
-        double amount;
+        long amount;
         try {
-            amount = Double.parseDouble(scanner.nextLine());
+            amount = Money.parse(scanner.nextLine());
             if (amount <= 0) throw new NumberFormatException();
         } catch (NumberFormatException e) {
             System.out.println("Invalid amount!");
@@ -186,9 +213,9 @@ public class ConsoleUI {
 
     private void viewTransactions() {
         System.out.println("\n=== TRANSACTIONS ===");
-        List<Map<String, Object>> transactions = financeService.getTransactions();
+        TransactionPage page = financeService.getTransactionPage(null, FinanceService.DEFAULT_PAGE_SIZE);
 
-        if (transactions.isEmpty()) {
+        if (page.items().isEmpty()) {
             System.out.println("No transactions found.");
             return;
         }
@@ -197,29 +224,32 @@ public class ConsoleUI {
                 "ID", "Type", "Amount", "Date", "Description", "Category");
         System.out.println("-".repeat(80));
 
-        double totalIncome = 0;
-        double totalExpense = 0;
+        long totalIncome = 0;
+        long totalExpense = 0;
 
-        for (Map<String, Object> t : transactions) {
-            String type = (String) t.get("type");
-            double amount = (double) t.get("amount");
-            String category = t.get("category") != null ? (String) t.get("category") : "-";
-
-            if (type.equals("INCOME")) totalIncome += amount;
-            else totalExpense += amount;
+        while (true) {
+            for (TransactionView t : page.items()) {
+                if (t.isIncome()) totalIncome += t.amount();
+                else totalExpense += t.amount();
+
+                System.out.printf("%-6d %-10s $%-11s %-15s %-30s %s\n",
+                        t.id(),
+                        t.type(),
+                        Money.format(t.amount()),
+                        t.date(),
+                        truncate(t.description(), 28),
+                        t.category() != null ? t.category() : "-");
+            }
 
-            System.out.printf("%-6d %-10s $%-11.2f %-15s %-30s %s\n",
-                    (int) t.get("id"),
-                    type,
-                    amount,
-                    t.get("date").toString(),
-                    truncate((String) t.get("description"), 28),
-                    category);
+            if (!page.hasMore()) break;
+            System.out.print("-- Enter for older transactions, q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+            page = financeService.getTransactionPage(page.nextCursor(), FinanceService.DEFAULT_PAGE_SIZE);
         }
 
         System.out.println("-".repeat(80));
-        System.out.printf("📊 Total Income: $%.2f | Total Expense: $%.2f | Balance: $%.2f\n",
-                totalIncome, totalExpense, totalIncome - totalExpense);
+        System.out.printf("📊 Shown — Income: $%s | Expense: $%s | Balance: $%s\n",
+                Money.format(totalIncome), Money.format(totalExpense), Money.format(totalIncome - totalExpense));
     }
 
     private void editTransaction() {
@@ -234,10 +264,10 @@ public class ConsoleUI {
 
         System.out.print("New amount (or Enter to skip): ");
         String amountInput = scanner.nextLine();
-        Double newAmount = null;
+        Long newAmount = null;
         if (!amountInput.isEmpty()) {
             try {
-                newAmount = Double.parseDouble(amountInput);
+                newAmount = Money.parse(amountInput);
             } catch (NumberFormatException e) {
                 System.out.println("Invalid amount!");
                 return;
@@ -272,6 +302,25 @@ public class ConsoleUI {
         System.out.println("✅ Transaction deleted!");
     }
 
+    private void importStatement() {
+        System.out.println("\n=== IMPORT BANK STATEMENT ===");
+        System.out.println("CSV columns: date (YYYY-MM-DD), amount (negative = expense), description, category");
+        System.out.print("File path: ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            System.out.println("Cancelled.");
+            return;
+        }
+
+        Path file = Path.of(input);
+        if (!Files.isRegularFile(file)) {
+            System.out.println("File not found!");
+            return;
+        }
+
+        importService.importStatement(file);
+    }
+
     // === МЕНЮ КАТЕГОРИЙ ===
     private void showCategoryMenu() {
         while (true) {
@@ -314,7 +363,7 @@ public class ConsoleUI {
 
     private void viewCategories() {
         System.out.println("\n=== CATEGORIES ===");
-        List<Map<String, Object>> categories = financeService.getCategories();
+        List<CategoryUsage> categories = financeService.getCategories();
 
         if (categories.isEmpty()) {
             System.out.println("No categories found.");
@@ -324,12 +373,12 @@ public class ConsoleUI {
         System.out.printf("%-6s %-20s %-10s %s\n", "ID", "Name", "Type", "Used in");
         System.out.println("-".repeat(50));
 
-        for (Map<String, Object> c : categories) {
+        for (CategoryUsage c : categories) {
             System.out.printf("%-6d %-20s %-10s %d transactions\n",
-                    (int) c.get("id"),
-                    (String) c.get("name"),
-                    (String) c.get("type"),
-                    (int) c.get("usage_count"));
+                    c.id(),
+                    c.name(),
+                    c.type(),
+                    c.usageCount());
         }
     }
 
@@ -359,9 +408,9 @@ public class ConsoleUI {
         String name = scanner.nextLine();
 
         System.out.print("Target amount: ");
-        double target;
+        long target;
         try {
-            target = Double.parseDouble(scanner.nextLine());
+            target = Money.parse(scanner.nextLine());
         } catch (NumberFormatException e) {
             System.out.println("Invalid amount!");
             return;
@@ -383,7 +432,7 @@ public class ConsoleUI {
 
     private void viewGoals() {
         System.out.println("\n=== GOALS ===");
-        List<Map<String, Object>> goals = financeService.getGoals();
+        List<GoalView> goals = financeService.getGoals();
 
         if (goals.isEmpty()) {
             System.out.println("No goals found.");
@@ -394,17 +443,13 @@ public class ConsoleUI {
                 "ID", "Name", "Target", "Current", "Progress");
         System.out.println("-".repeat(65));
 
-        for (Map<String, Object> g : goals) {
-            double target = (double) g.get("target_amount");
-            double current = (double) g.get("current_amount");
-            double progress = target > 0 ? (current / target) * 100 : 0;
-
-            System.out.printf("%-6d %-20s $%-11.2f $%-11.2f %.1f%%\n",
-                    (int) g.get("id"),
-                    (String) g.get("name"),
-                    target,
-                    current,
-                    progress);
+        for (GoalView g : goals) {
+            System.out.printf("%-6d %-20s $%-11s $%-11s %.1f%%\n",
+                    g.id(),
+                    g.name(),
+                    Money.format(g.targetAmount()),
+                    Money.format(g.currentAmount()),
+                    g.progressPercent());
         }
     }
 
@@ -415,7 +460,9 @@ public class ConsoleUI {
             System.out.println("1. 📅 Monthly summary");
             System.out.println("2. 📊 Expenses by category");
             System.out.println("3. 💪 Financial health");
-            System.out.println("4. 🔙 Back");
+            System.out.println("4. 📐 Expense distribution");
+            System.out.println("5. 🔧 Rebuild analytics totals");
+            System.out.println("6. 🔙 Back");
             System.out.print("Choice: ");
 
             String choice = scanner.nextLine();
@@ -423,7 +470,9 @@ public class ConsoleUI {
                 case "1" -> showMonthlySummary();
                 case "2" -> showExpensesByCategory();
                 case "3" -> showFinancialHealth();
-                case "4" -> { return; }
+                case "4" -> showExpenseDistribution();
+                case "5" -> analyticsService.rebuildMonthlyTotals();
+                case "6" -> { return; }
                 default -> System.out.println("Invalid choice!");
             }
         }
@@ -475,15 +524,15 @@ public class ConsoleUI {
         System.out.printf("%-20s %s\n", "Category", "Amount");
         System.out.println("-".repeat(40));
 
-        double total = 0;
+        long total = 0;
         for (Map<String, Object> expense : expenses) {
-            double amount = (double) expense.get("total");
+            long amount = (long) expense.get("total");
             total += amount;
-            System.out.printf("%-20s $%.2f\n", expense.get("category"), amount);
+            System.out.printf("%-20s $%s\n", expense.get("category"), Money.format(amount));
         }
 
         System.out.println("-".repeat(40));
-        System.out.printf("Total expenses this month: $%.2f\n", total);
+        System.out.println("Total expenses this month: $" + Money.format(total));
     }
 
     private void showFinancialHealth() {
@@ -508,11 +557,26 @@ public class ConsoleUI {
         }
     }
 
+    private void showExpenseDistribution() {
+        System.out.println("\n=== EXPENSE DISTRIBUTION (Last 12 months) ===");
+        Map<String, Double> distribution = analyticsService.getExpenseDistribution();
+
+        if (distribution.isEmpty()) {
+            System.out.println("No data available.");
+            return;
+        }
+
+        System.out.printf("Typical expense (median): $%.2f\n", distribution.get("median"));
+        System.out.printf("90%% of expenses are below: $%.2f\n", distribution.get("p90"));
+        System.out.printf("99%% of expenses are below: $%.2f\n", distribution.get("p99"));
+        System.out.printf("Highest 30-day spending: $%.2f\n", distribution.get("max_30_days"));
+    }
+
     // === МЕНЮ ЭКСПОРТА ===
     private void showExportMenu() {
         while (true) {
             System.out.println("\n=== EXPORT DATA ===");
-            System.out.println("1. 📄 Export transactions to TXT");
+            System.out.println("1. 📄 Export transactions (TXT, CSV, JSONL, columnar)");
             System.out.println("2. 📊 Export financial report");
             System.out.println("3. 🔙 Back");
             System.out.print("Choice: ");
@@ -528,11 +592,13 @@ public class ConsoleUI {
     }
 
     private void exportTransactions() {
+        System.out.println("Formats: .txt report, .csv, .jsonl, .cshc columnar; add .gz to compress");
         System.out.print("Enter filename (e.g., transactions.txt): ");
         String filename = scanner.nextLine();
         if (filename.isEmpty()) filename = "transactions_" + System.currentTimeMillis() + ".txt";
 
-        exportService.exportTransactionsToTxt(filename);
+        ExportJob job = exportService.startTransactionsExport(Path.of(filename));
+        if (job != null) followExport(job, filename);
     }
 
     private void exportFinancialReport() {
@@ -540,12 +606,46 @@ public class ConsoleUI {
         String filename = scanner.nextLine();
         if (filename.isEmpty()) filename = "financial_report_" + System.currentTimeMillis() + ".txt";
 
-        exportService.exportFinancialReport(filename);
+        ExportJob job = exportService.startFinancialReport(Path.of(filename));
+        if (job != null) followExport(job, filename);
+    }
+
+    // Печатает прогресс, пока экспорт идёт в фоне; Enter отменяет его
+    private void followExport(ExportJob job, String filename) {
+        System.out.println("⏳ Exporting... press Enter to cancel");
+        try {
+            ExportJob.Result result;
+            while ((result = job.await(EXPORT_PROGRESS_MILLIS)) == null) {
+                if (System.in.available() > 0) {
+                    job.cancel();
+                }
+                int percent = job.getPercentDone();
+                System.out.print("\r   " + job.getRowsWritten() + " of " + job.getTotalRows() + " rows"
+                        + (percent >= 0 ? " (" + percent + "%)" : ""));
+            }
+            System.out.println();
+            if (result.cancelled()) {
+                scanner.nextLine();
+                System.out.println("❌ Export cancelled after " + result.rows() + " rows");
+            } else {
+                System.out.println("✅ Exported " + result.rows() + " rows to " + filename + " ("
+                        + result.bytes() + " bytes in " + result.elapsedMillis() + " ms)");
+            }
+        } catch (ExecutionException e) {
+            System.out.println();
+            System.err.println("Error exporting to file: " + e.getCause().getMessage());
+        } catch (IOException e) {
+            job.cancel();
+            System.err.println("Error reading input: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+        }
     }
 
     // === ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ===
     private Long selectCategory(String type) {
-        List<Map<String, Object>> categories = financeService.getCategoriesByType(type);
+        List<CategoryOption> categories = financeService.getCategoriesByType(type);
 
         if (categories.isEmpty()) {
             System.out.println("No categories available for " + type.toLowerCase());
@@ -554,7 +654,7 @@ public class ConsoleUI {
 
         System.out.println("Available categories:");
         for (int i = 0; i < categories.size(); i++) {
-            System.out.printf("%d. %s\n", i + 1, categories.get(i).get("name"));
+            System.out.printf("%d. %s\n", i + 1, categories.get(i).name());
         }
 
         System.out.print("Choose category (number) or 0 for none: ");
@@ -562,7 +662,7 @@ public class ConsoleUI {
             int choice = Integer.parseInt(scanner.nextLine());
             if (choice == 0) return null;
             if (choice > 0 && choice <= categories.size()) {
-                return ((Integer) categories.get(choice - 1).get("id")).longValue();
+                return (long) categories.get(choice - 1).id();
             }
         } catch (NumberFormatException e) {
         }